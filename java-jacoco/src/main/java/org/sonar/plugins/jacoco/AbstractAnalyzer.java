@@ -19,12 +19,17 @@
  */
 package org.sonar.plugins.jacoco;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
 import org.apache.commons.lang.StringUtils;
 import org.jacoco.core.analysis.Analyzer;
 import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
 import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ICoverageVisitor;
 import org.jacoco.core.analysis.ILine;
 import org.jacoco.core.analysis.ISourceFileCoverage;
 import org.jacoco.core.data.ExecutionData;
@@ -39,10 +44,6 @@ import org.sonar.api.resources.Resource;
 import org.sonar.api.resources.ResourceUtils;
 import org.sonar.api.scan.filesystem.ModuleFileSystem;
 import org.sonar.api.scan.filesystem.PathResolver;
-import org.sonar.api.test.MutableTestCase;
-import org.sonar.api.test.MutableTestPlan;
-import org.sonar.api.test.MutableTestable;
-import org.sonar.api.test.Testable;
 import org.sonar.api.utils.SonarException;
 import org.sonar.java.JavaClasspath;
 import org.sonar.plugins.java.api.JavaResourceLocator;
@@ -52,21 +53,36 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.google.common.collect.Lists.newArrayList;
 
 public abstract class AbstractAnalyzer {
 
+  /**
+   * Prefix of the session shared by test classes executed in parallel, as written by the JaCoCo listeners.
+   */
+  private static final String PARALLEL_SESSION_PREFIX = "parallel:";
+
   private final ResourcePerspectives perspectives;
   private final ModuleFileSystem fileSystem;
   private final PathResolver pathResolver;
   private final JavaResourceLocator javaResourceLocator;
   private final boolean readCoveragePerTests;
+  private final int analysisThreads;
 
   private Map<String, File> classFilesCache;
+  private final Map<ProbesKey, Map<Resource, List<Integer>>> coveredLinesCache = new CoveredLinesCache();
   private JavaClasspath javaClasspath;
 
   public AbstractAnalyzer(ResourcePerspectives perspectives, ModuleFileSystem fileSystem, PathResolver pathResolver,
@@ -75,11 +91,20 @@ public abstract class AbstractAnalyzer {
   }
   public AbstractAnalyzer(ResourcePerspectives perspectives, ModuleFileSystem fileSystem,
                           PathResolver pathResolver, JavaResourceLocator javaResourceLocator, JavaClasspath javaClasspath, boolean readCoveragePerTests) {
+    this(perspectives, fileSystem, pathResolver, javaResourceLocator, javaClasspath, readCoveragePerTests, 1);
+  }
+
+  /**
+   * @param analysisThreads number of threads used to analyze class files, values lower or equal to 1 mean sequential analysis
+   */
+  public AbstractAnalyzer(ResourcePerspectives perspectives, ModuleFileSystem fileSystem, PathResolver pathResolver,
+                          JavaResourceLocator javaResourceLocator, JavaClasspath javaClasspath, boolean readCoveragePerTests, int analysisThreads) {
     this.perspectives = perspectives;
     this.fileSystem = fileSystem;
     this.pathResolver = pathResolver;
     this.javaResourceLocator = javaResourceLocator;
     this.readCoveragePerTests = readCoveragePerTests;
+    this.analysisThreads = analysisThreads;
     this.javaClasspath = javaClasspath;
   }
 
@@ -113,16 +138,14 @@ public abstract class AbstractAnalyzer {
       JaCoCoExtensions.LOG.info("No JaCoCo analysis of project coverage can be done since there is no class files.");
       return;
     }
-    String path = getReportPath(project);
-    File jacocoExecutionData = pathResolver.relativeFile(fileSystem.baseDir(), path);
-
     try {
-      readExecutionData(jacocoExecutionData, context);
+      readExecutionData(getReportFiles(project), context);
     } catch (IOException e) {
       throw new SonarException(e);
     }
 
     classFilesCache = null;
+    coveredLinesCache.clear();
   }
 
   private void populateClassFilesCache(File dir, String path) {
@@ -140,26 +163,33 @@ public abstract class AbstractAnalyzer {
     }
   }
 
+  /**
+   * Execution data files to analyze, by default the one of {@link #getReportPath(Project)}.
+   * When there are several files, their execution data are merged in memory.
+   */
+  protected List<File> getReportFiles(Project project) {
+    return Collections.singletonList(pathResolver.relativeFile(fileSystem.baseDir(), getReportPath(project)));
+  }
+
   public final void readExecutionData(File jacocoExecutionData, SensorContext context) throws IOException {
-    ExecutionDataVisitor executionDataVisitor = new ExecutionDataVisitor();
+    readExecutionData(Collections.singletonList(jacocoExecutionData), context);
+  }
 
-    if (jacocoExecutionData == null || !jacocoExecutionData.isFile()) {
-      JaCoCoExtensions.LOG.info("Project coverage is set to 0% as no JaCoCo execution data has been dumped: {}", jacocoExecutionData);
-      jacocoExecutionData = null;
-    } else {
-      JaCoCoExtensions.LOG.info("Analysing {}", jacocoExecutionData);
-
-      InputStream inputStream = null;
-      try {
-        inputStream = new BufferedInputStream(new FileInputStream(jacocoExecutionData));
-        ExecutionDataReader reader = new ExecutionDataReader(inputStream);
-        reader.setSessionInfoVisitor(executionDataVisitor);
-        reader.setExecutionDataVisitor(executionDataVisitor);
-        reader.read();
-      } finally {
-        Closeables.closeQuietly(inputStream);
+  public final void readExecutionData(List<File> jacocoExecutionDataFiles, SensorContext context) throws IOException {
+    ExecutionDataVisitor executionDataVisitor = new ExecutionDataVisitor(readCoveragePerTests);
+
+    boolean executionDataRead = false;
+    for (File jacocoExecutionData : jacocoExecutionDataFiles) {
+      if (jacocoExecutionData != null && jacocoExecutionData.isFile()) {
+        JaCoCoExtensions.LOG.info("Analysing {}", jacocoExecutionData);
+        readExecutionData(jacocoExecutionData, executionDataVisitor);
+        executionDataRead = true;
       }
     }
+    if (!executionDataRead) {
+      JaCoCoExtensions.LOG.info("Project coverage is set to 0% as no JaCoCo execution data has been dumped: {}",
+        jacocoExecutionDataFiles.size() == 1 ? jacocoExecutionDataFiles.get(0) : jacocoExecutionDataFiles);
+    }
 
     boolean collectedCoveragePerTest = readCoveragePerTests(context, executionDataVisitor);
 
@@ -177,24 +207,68 @@ public abstract class AbstractAnalyzer {
       JaCoCoExtensions.LOG.warn("Coverage information was not collected. Perhaps you forget to include debug information into compiled classes?");
     } else if (collectedCoveragePerTest) {
       JaCoCoExtensions.LOG.info("Information about coverage per test has been collected.");
-    } else if (jacocoExecutionData != null) {
+    } else if (executionDataRead) {
       JaCoCoExtensions.LOG.info("No information about coverage per test.");
     }
   }
 
+  private static void readExecutionData(File jacocoExecutionData, ExecutionDataVisitor executionDataVisitor) throws IOException {
+    InputStream inputStream = null;
+    try {
+      inputStream = new BufferedInputStream(new FileInputStream(jacocoExecutionData));
+      ExecutionDataReader reader = new ExecutionDataReader(inputStream);
+      reader.setSessionInfoVisitor(executionDataVisitor);
+      reader.setExecutionDataVisitor(executionDataVisitor);
+      reader.read();
+    } finally {
+      Closeables.closeQuietly(inputStream);
+    }
+  }
+
   private boolean readCoveragePerTests(SensorContext context, ExecutionDataVisitor executionDataVisitor) {
     boolean collectedCoveragePerTest = false;
     if(readCoveragePerTests) {
+      TestPlanWriter testPlanWriter = new TestPlanWriter(perspectives);
+      // coverage of parallel sessions is kept until saved, so that coverage of single tests is then merged into it
+      for (Map.Entry<String, ExecutionDataStore> entry : executionDataVisitor.getSessions().entrySet()) {
+        if (entry.getKey().startsWith(PARALLEL_SESSION_PREFIX) && analyzeLinesCoveredByTests(entry.getKey(), entry.getValue(), context, testPlanWriter)) {
+          collectedCoveragePerTest = true;
+        }
+      }
       for (Map.Entry<String, ExecutionDataStore> entry : executionDataVisitor.getSessions().entrySet()) {
-        if (analyzeLinesCoveredByTests(entry.getKey(), entry.getValue(), context)) {
+        if (!entry.getKey().startsWith(PARALLEL_SESSION_PREFIX) && analyzeLinesCoveredByTests(entry.getKey(), entry.getValue(), context, testPlanWriter)) {
           collectedCoveragePerTest = true;
         }
       }
+      testPlanWriter.save();
     }
     return collectedCoveragePerTest;
   }
 
-  private boolean analyzeLinesCoveredByTests(String sessionId, ExecutionDataStore executionDataStore, SensorContext context) {
+  /**
+   * Session is either the one of a single test ("TestClass testName"), or the one shared by test classes executed in parallel
+   * ("parallel: TestClass1 TestClass2"), in which case coverage is attributed to all the tests of these test classes.
+   */
+  private boolean analyzeLinesCoveredByTests(String sessionId, ExecutionDataStore executionDataStore, SensorContext context, TestPlanWriter testPlanWriter) {
+    if (sessionId.startsWith(PARALLEL_SESSION_PREFIX)) {
+      boolean result = false;
+      Map<Resource, SortedSet<Integer>> coveredLinesByResource = null;
+      for (String testClassName : Splitter.on(' ').omitEmptyStrings().split(sessionId.substring(PARALLEL_SESSION_PREFIX.length()))) {
+        Resource testResource = context.getResource(javaResourceLocator.findResourceByClassName(testClassName));
+        if (testResource != null) {
+          if (coveredLinesByResource == null) {
+            coveredLinesByResource = coveredLinesByResource(executionDataStore, context);
+          }
+          for (Map.Entry<Resource, SortedSet<Integer>> coveredLines : coveredLinesByResource.entrySet()) {
+            if (testPlanWriter.addCoverageOfAllTests(coveredLines.getKey(), testResource, coveredLines.getValue())) {
+              result = true;
+            }
+          }
+        }
+      }
+      return result;
+    }
+
     int i = sessionId.indexOf(' ');
     if (i < 0) {
       return false;
@@ -206,33 +280,60 @@ public abstract class AbstractAnalyzer {
       // No such test class
       return false;
     }
-
     boolean result = false;
-    CoverageBuilder coverageBuilder = analyze2(executionDataStore);
-    for (ISourceFileCoverage coverage : coverageBuilder.getSourceFiles()) {
-      Resource resource = getResource(coverage, context);
-      if (resource != null) {
-        CoverageMeasuresBuilder builder = analyzeFile(resource, coverage);
-        List<Integer> coveredLines = getCoveredLines(builder);
-        if (!coveredLines.isEmpty() && addCoverage(resource, testResource, testName, coveredLines)) {
-          result = true;
-        }
+    for (Map.Entry<Resource, SortedSet<Integer>> coveredLines : coveredLinesByResource(executionDataStore, context).entrySet()) {
+      if (testPlanWriter.addCoverage(coveredLines.getKey(), testResource, testName, coveredLines.getValue())) {
+        result = true;
       }
     }
     return result;
   }
 
-  private CoverageBuilder analyze2(ExecutionDataStore executionDataStore) {
-    CoverageBuilder coverageBuilder = new CoverageBuilder();
-    Analyzer analyzer = new Analyzer(executionDataStore, coverageBuilder);
+  private Map<Resource, SortedSet<Integer>> coveredLinesByResource(ExecutionDataStore executionDataStore, SensorContext context) {
+    Map<Resource, SortedSet<Integer>> coveredLinesByResource = Maps.newHashMap();
     for (ExecutionData data : executionDataStore.getContents()) {
-      String vmClassName = data.getName();
-      File classFile = classFilesCache.get(vmClassName);
+      File classFile = classFilesCache.get(data.getName());
       if (classFile != null) {
-        analyzeClassFile(analyzer, classFile);
+        for (Map.Entry<Resource, List<Integer>> entry : coveredLines(classFile, data, context).entrySet()) {
+          SortedSet<Integer> coveredLines = coveredLinesByResource.get(entry.getKey());
+          if (coveredLines == null) {
+            coveredLines = Sets.newTreeSet();
+            coveredLinesByResource.put(entry.getKey(), coveredLines);
+          }
+          coveredLines.addAll(entry.getValue());
+        }
       }
     }
-    return coverageBuilder;
+    return coveredLinesByResource;
+  }
+
+  /**
+   * Lines covered by given execution data of a single class, grouped by resource.
+   * A line is covered as soon as one of its instructions is covered, so lines covered by a session are the union of
+   * the lines covered by each of its classes. Result is cached by probes, so that class file is analyzed only once
+   * for all the tests which execute it the same way, as long as the probe set is among the most recently used ones.
+   */
+  private Map<Resource, List<Integer>> coveredLines(File classFile, ExecutionData data, SensorContext context) {
+    ProbesKey key = new ProbesKey(data);
+    Map<Resource, List<Integer>> result = coveredLinesCache.get(key);
+    if (result == null) {
+      result = Maps.newHashMap();
+      ExecutionDataStore executionDataStore = new ExecutionDataStore();
+      executionDataStore.put(data);
+      CoverageBuilder coverageBuilder = new CoverageBuilder();
+      analyzeClassFile(new Analyzer(executionDataStore, coverageBuilder), classFile);
+      for (ISourceFileCoverage coverage : coverageBuilder.getSourceFiles()) {
+        Resource resource = getResource(coverage, context);
+        if (resource != null) {
+          List<Integer> coveredLines = getCoveredLines(analyzeFile(resource, coverage));
+          if (!coveredLines.isEmpty()) {
+            result.put(resource, coveredLines);
+          }
+        }
+      }
+      coveredLinesCache.put(key, result);
+    }
+    return result;
   }
 
   private List<Integer> getCoveredLines(CoverageMeasuresBuilder builder) {
@@ -245,28 +346,51 @@ public abstract class AbstractAnalyzer {
     return linesCover;
   }
 
-  private boolean addCoverage(Resource resource, Resource testFile, String testName, List<Integer> coveredLines) {
-    boolean result = false;
-    Testable testAbleFile = perspectives.as(MutableTestable.class, resource);
-    if (testAbleFile != null) {
-      MutableTestPlan testPlan = perspectives.as(MutableTestPlan.class, testFile);
-      if (testPlan != null) {
-        for (MutableTestCase testCase : testPlan.testCasesByName(testName)) {
-          testCase.setCoverageBlock(testAbleFile, coveredLines);
-          result = true;
-        }
+  private CoverageBuilder analyze(ExecutionDataStore executionDataStore) {
+    CoverageBuilder coverageBuilder = new CoverageBuilder();
+    if (analysisThreads > 1 && classFilesCache.size() > 1) {
+      analyzeInParallel(executionDataStore, coverageBuilder);
+    } else {
+      Analyzer analyzer = new Analyzer(executionDataStore, coverageBuilder);
+      for (File classFile : classFilesCache.values()) {
+        analyzeClassFile(analyzer, classFile);
       }
     }
-    return result;
+    return coverageBuilder;
   }
 
-  private CoverageBuilder analyze(ExecutionDataStore executionDataStore) {
-    CoverageBuilder coverageBuilder = new CoverageBuilder();
-    Analyzer analyzer = new Analyzer(executionDataStore, coverageBuilder);
-    for (File classFile : classFilesCache.values()) {
-      analyzeClassFile(analyzer, classFile);
+  /**
+   * Class files are partitioned across workers, each with its own {@link Analyzer}: reading and analysis of classes is done concurrently,
+   * while results are collected into the single {@link CoverageBuilder}, which merges classes by source file.
+   */
+  private void analyzeInParallel(final ExecutionDataStore executionDataStore, CoverageBuilder coverageBuilder) {
+    final ICoverageVisitor coverageVisitor = new SynchronizedCoverageVisitor(coverageBuilder);
+    int partitionSize = (classFilesCache.size() + analysisThreads - 1) / analysisThreads;
+    ExecutorService executorService = Executors.newFixedThreadPool(analysisThreads);
+    try {
+      List<Future<?>> futures = newArrayList();
+      for (final List<File> classFiles : Iterables.partition(classFilesCache.values(), partitionSize)) {
+        futures.add(executorService.submit(new Runnable() {
+          @Override
+          public void run() {
+            Analyzer analyzer = new Analyzer(executionDataStore, coverageVisitor);
+            for (File classFile : classFiles) {
+              analyzeClassFile(analyzer, classFile);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SonarException("Interrupted during analysis of class files", e);
+    } catch (ExecutionException e) {
+      throw new SonarException("Unable to analyze class files", e.getCause());
+    } finally {
+      executorService.shutdownNow();
     }
-    return coverageBuilder;
   }
 
   /**
@@ -320,4 +444,69 @@ public abstract class AbstractAnalyzer {
 
   protected abstract String getReportPath(Project project);
 
+  private static class ProbesKey {
+
+    private final long classId;
+    private final boolean[] probes;
+    private final int hashCode;
+
+    public ProbesKey(ExecutionData data) {
+      this.classId = data.getId();
+      this.probes = data.getProbes();
+      this.hashCode = 31 * (int) (classId ^ (classId >>> 32)) + Arrays.hashCode(probes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ProbesKey)) {
+        return false;
+      }
+      ProbesKey other = (ProbesKey) obj;
+      return classId == other.classId && Arrays.equals(probes, other.probes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+  }
+
+  /**
+   * Least recently used probe sets are evicted, so that suites executing classes in many different ways do not
+   * accumulate the covered lines of all of them.
+   */
+  private static class CoveredLinesCache extends LinkedHashMap<ProbesKey, Map<Resource, List<Integer>>> {
+
+    private static final int MAX_SIZE = 10000;
+
+    public CoveredLinesCache() {
+      super(16, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<ProbesKey, Map<Resource, List<Integer>>> eldest) {
+      return size() > MAX_SIZE;
+    }
+
+  }
+
+  private static class SynchronizedCoverageVisitor implements ICoverageVisitor {
+
+    private final ICoverageVisitor delegate;
+
+    public SynchronizedCoverageVisitor(ICoverageVisitor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void visitCoverage(IClassCoverage coverage) {
+      delegate.visitCoverage(coverage);
+    }
+
+  }
+
 }
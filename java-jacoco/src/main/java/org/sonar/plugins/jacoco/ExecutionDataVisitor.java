@@ -31,12 +31,28 @@ import java.util.Map;
 public class ExecutionDataVisitor implements ISessionInfoVisitor, IExecutionDataVisitor {
 
   private final Map<String, ExecutionDataStore> sessions = Maps.newHashMap();
+  private final boolean keepSessions;
 
   private ExecutionDataStore executionDataStore;
   private ExecutionDataStore merged = new ExecutionDataStore();
 
+  public ExecutionDataVisitor() {
+    this(true);
+  }
+
+  /**
+   * @param keepSessions when {@code false}, execution data are only merged on the fly and {@link #getSessions()} stays empty,
+   *                     so that probes of each session are not retained in memory
+   */
+  public ExecutionDataVisitor(boolean keepSessions) {
+    this.keepSessions = keepSessions;
+  }
+
   @Override
   public void visitSessionInfo(SessionInfo info) {
+    if (!keepSessions) {
+      return;
+    }
     String sessionId = info.getId();
     executionDataStore = sessions.get(sessionId);
     if (executionDataStore == null) {
@@ -47,8 +63,18 @@ public class ExecutionDataVisitor implements ISessionInfoVisitor, IExecutionData
 
   @Override
   public void visitClassExecution(ExecutionData data) {
+    if (!keepSessions) {
+      merged.put(data);
+      return;
+    }
     executionDataStore.put(data);
-    merged.put(defensiveCopy(data));
+    if (merged.get(data.getId()) == null) {
+      // data is also referenced by the session store, which merges subsequent data of the same session into it
+      merged.put(defensiveCopy(data));
+    } else {
+      // merged into existing copy, data itself is not retained
+      merged.put(data);
+    }
   }
 
   public Map<String, ExecutionDataStore> getSessions() {
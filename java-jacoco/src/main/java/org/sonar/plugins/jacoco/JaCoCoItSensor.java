@@ -70,7 +70,7 @@ public class JaCoCoItSensor implements Sensor {
 
   class ITAnalyzer extends AbstractAnalyzer {
     public ITAnalyzer(ResourcePerspectives perspectives) {
-      super(perspectives, fileSystem, pathResolver, javaResourceLocator, javaClasspath);
+      super(perspectives, fileSystem, pathResolver, javaResourceLocator, javaClasspath, true, configuration.getAnalysisThreads());
     }
 
     @Override
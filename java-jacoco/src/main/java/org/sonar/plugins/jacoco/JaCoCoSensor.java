@@ -28,6 +28,7 @@ import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.scan.filesystem.ModuleFileSystem;
 import org.sonar.api.scan.filesystem.PathResolver;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.JavaClasspath;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 
@@ -42,15 +43,17 @@ public class JaCoCoSensor implements Sensor {
   private final PathResolver pathResolver;
   private final JavaResourceLocator javaResourceLocator;
   private final JavaClasspath javaClasspath;
+  private final AnalysisMetrics metrics;
 
   public JaCoCoSensor(JacocoConfiguration configuration, ResourcePerspectives perspectives, ModuleFileSystem fileSystem, PathResolver pathResolver,
-                      JavaResourceLocator javaResourceLocator, JavaClasspath javaClasspath) {
+                      JavaResourceLocator javaResourceLocator, JavaClasspath javaClasspath, AnalysisMetrics metrics) {
     this.configuration = configuration;
     this.perspectives = perspectives;
     this.fileSystem = fileSystem;
     this.pathResolver = pathResolver;
     this.javaResourceLocator = javaResourceLocator;
     this.javaClasspath = javaClasspath;
+    this.metrics = metrics;
   }
 
   /**
@@ -63,7 +66,10 @@ public class JaCoCoSensor implements Sensor {
 
   @Override
   public void analyse(Project project, SensorContext context) {
+    long start = System.nanoTime();
     new UnitTestsAnalyzer(perspectives).analyse(project, context);
+    metrics.addTime(AnalysisMetrics.JACOCO, System.nanoTime() - start);
+    metrics.writeReport(fileSystem.workingDir());
   }
 
   @Override
@@ -79,7 +85,7 @@ public class JaCoCoSensor implements Sensor {
 
   class UnitTestsAnalyzer extends AbstractAnalyzer {
     public UnitTestsAnalyzer(ResourcePerspectives perspectives) {
-      super(perspectives, fileSystem, pathResolver, javaResourceLocator, javaClasspath);
+      super(perspectives, fileSystem, pathResolver, javaResourceLocator, javaClasspath, true, configuration.getAnalysisThreads());
     }
 
     @Override
@@ -0,0 +1,140 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2010 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.jacoco;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.test.MutableTestCase;
+import org.sonar.api.test.MutableTestPlan;
+import org.sonar.api.test.MutableTestable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+/**
+ * Saves coverage blocks of test cases. Perspectives are resolved only once per resource and test cases of a test plan
+ * are indexed by name upon first access, so that saving coverage of each test case does not look them up again.
+ * Coverage of a single test is saved immediately. Coverage of all the tests of a test file (e.g. test classes executed
+ * in parallel) may come from several sessions, so it is accumulated and saved only once per test case and resource by
+ * {@link #save()}: it has to be added before the coverage of single tests, which is then merged into it.
+ */
+class TestPlanWriter {
+
+  private final ResourcePerspectives perspectives;
+  private final Map<Resource, MutableTestable> testables = Maps.newHashMap();
+  private final Map<Resource, ListMultimap<String, MutableTestCase>> testCasesByTestFile = Maps.newHashMap();
+  private final Map<MutableTestCase, Map<MutableTestable, SortedSet<Integer>>> pendingCoverageBlocks = Maps.newLinkedHashMap();
+
+  TestPlanWriter(ResourcePerspectives perspectives) {
+    this.perspectives = perspectives;
+  }
+
+  /**
+   * @return true if coverage has been added to at least one test case
+   */
+  boolean addCoverage(Resource resource, Resource testFile, String testName, Collection<Integer> coveredLines) {
+    MutableTestable testable = testable(resource);
+    if (testable == null) {
+      return false;
+    }
+    List<MutableTestCase> testCases = testCases(testFile).get(testName);
+    for (MutableTestCase testCase : testCases) {
+      Map<MutableTestable, SortedSet<Integer>> blocks = pendingCoverageBlocks.get(testCase);
+      if (blocks == null) {
+        testCase.setCoverageBlock(testable, Lists.newArrayList(coveredLines));
+      } else {
+        addLines(blocks, testable, coveredLines);
+      }
+    }
+    return !testCases.isEmpty();
+  }
+
+  /**
+   * Coverage is attributed to all the test cases of the test file, and kept until {@link #save()}.
+   *
+   * @return true if coverage has been added to at least one test case
+   */
+  boolean addCoverageOfAllTests(Resource resource, Resource testFile, Collection<Integer> coveredLines) {
+    MutableTestable testable = testable(resource);
+    if (testable == null) {
+      return false;
+    }
+    Collection<MutableTestCase> testCases = testCases(testFile).values();
+    for (MutableTestCase testCase : testCases) {
+      Map<MutableTestable, SortedSet<Integer>> blocks = pendingCoverageBlocks.get(testCase);
+      if (blocks == null) {
+        blocks = Maps.newLinkedHashMap();
+        pendingCoverageBlocks.put(testCase, blocks);
+      }
+      addLines(blocks, testable, coveredLines);
+    }
+    return !testCases.isEmpty();
+  }
+
+  private static void addLines(Map<MutableTestable, SortedSet<Integer>> blocks, MutableTestable testable, Collection<Integer> coveredLines) {
+    SortedSet<Integer> lines = blocks.get(testable);
+    if (lines == null) {
+      lines = Sets.newTreeSet();
+      blocks.put(testable, lines);
+    }
+    lines.addAll(coveredLines);
+  }
+
+  void save() {
+    for (Map.Entry<MutableTestCase, Map<MutableTestable, SortedSet<Integer>>> testCase : pendingCoverageBlocks.entrySet()) {
+      for (Map.Entry<MutableTestable, SortedSet<Integer>> block : testCase.getValue().entrySet()) {
+        testCase.getKey().setCoverageBlock(block.getKey(), Lists.newArrayList(block.getValue()));
+      }
+    }
+    pendingCoverageBlocks.clear();
+  }
+
+  private MutableTestable testable(Resource resource) {
+    if (testables.containsKey(resource)) {
+      return testables.get(resource);
+    }
+    MutableTestable testable = perspectives.as(MutableTestable.class, resource);
+    testables.put(resource, testable);
+    return testable;
+  }
+
+  private ListMultimap<String, MutableTestCase> testCases(Resource testFile) {
+    ListMultimap<String, MutableTestCase> testCases = testCasesByTestFile.get(testFile);
+    if (testCases == null) {
+      testCases = ArrayListMultimap.create();
+      MutableTestPlan testPlan = perspectives.as(MutableTestPlan.class, testFile);
+      if (testPlan != null) {
+        for (MutableTestCase testCase : testPlan.testCases()) {
+          testCases.put(testCase.name(), testCase);
+        }
+      }
+      testCasesByTestFile.put(testFile, testCases);
+    }
+    return testCases;
+  }
+
+}
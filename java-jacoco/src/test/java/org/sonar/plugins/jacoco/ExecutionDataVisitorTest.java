@@ -48,4 +48,18 @@ public class ExecutionDataVisitorTest {
     assertThat(visitor.getMerged().get(1).getProbes()).isEqualTo(new boolean[] {true, true, true});
   }
 
+  @Test
+  public void should_only_merge_when_sessions_are_not_kept() {
+    ExecutionDataVisitor visitor = new ExecutionDataVisitor(false);
+
+    visitor.visitSessionInfo(new SessionInfo("foo", 1L, 1L));
+    visitor.visitClassExecution(new ExecutionData(1, "", new boolean[] {true, false, false}));
+
+    visitor.visitSessionInfo(new SessionInfo("bar", 2L, 2L));
+    visitor.visitClassExecution(new ExecutionData(1, "", new boolean[] {false, true, false}));
+
+    assertThat(visitor.getSessions()).isEmpty();
+    assertThat(visitor.getMerged().get(1).getProbes()).isEqualTo(new boolean[] {true, true, false});
+  }
+
 }
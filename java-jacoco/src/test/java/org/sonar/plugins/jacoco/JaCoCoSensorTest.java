@@ -22,7 +22,9 @@ package org.sonar.plugins.jacoco;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Files;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.component.ResourcePerspectives;
 import org.sonar.api.measures.CoreMetrics;
@@ -35,12 +37,14 @@ import org.sonar.api.test.IsMeasure;
 import org.sonar.api.test.MutableTestCase;
 import org.sonar.api.test.MutableTestPlan;
 import org.sonar.api.test.MutableTestable;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.JavaClasspath;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.test.TestUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.fest.assertions.Assertions.assertThat;
@@ -56,6 +60,9 @@ import static org.mockito.Mockito.when;
 
 public class JaCoCoSensorTest {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   private File jacocoExecutionData;
   private File outputDir;
   private JacocoConfiguration configuration;
@@ -64,6 +71,7 @@ public class JaCoCoSensorTest {
   private PathResolver pathResolver;
   private Project project;
   private JaCoCoSensor sensor;
+  private AnalysisMetrics metrics;
   private JavaResourceLocator javaResourceLocator = mock(JavaResourceLocator.class);
   private JavaClasspath javaClasspath;
 
@@ -82,7 +90,8 @@ public class JaCoCoSensorTest {
     configuration = mock(JacocoConfiguration.class);
     perspectives = mock(ResourcePerspectives.class);
     javaClasspath = mock(JavaClasspath.class);
-    sensor = new JaCoCoSensor(configuration, perspectives, fileSystem, pathResolver, javaResourceLocator, javaClasspath);
+    metrics = new AnalysisMetrics();
+    sensor = new JaCoCoSensor(configuration, perspectives, fileSystem, pathResolver, javaResourceLocator, javaClasspath, metrics);
   }
 
   @Test
@@ -128,33 +137,101 @@ public class JaCoCoSensorTest {
     verify(context).saveMeasure(eq(resource), argThat(new IsMeasure(CoreMetrics.UNCOVERED_CONDITIONS, 2.0)));
     verify(context).saveMeasure(eq(resource), argThat(new IsMeasure(CoreMetrics.CONDITIONS_BY_LINE, "15=2")));
     verify(context).saveMeasure(eq(resource), argThat(new IsMeasure(CoreMetrics.COVERED_CONDITIONS_BY_LINE, "15=0")));
+    assertThat(metrics.getTime(AnalysisMetrics.JACOCO)).isGreaterThan(0);
   }
 
   @Test
-  public void test_read_execution_data_for_lines_covered_by_tests() throws IOException {
-    outputDir = TestUtils.getResource("/org/sonar/plugins/jacoco/JaCoCoSensorTest2/");
-    jacocoExecutionData = new File(outputDir, "jacoco.exec");
-    Files.copy(TestUtils.getResource("/org/sonar/plugins/jacoco/JaCoCoSensorTest2/org/example/App.class.toCopy"),
-        new File(jacocoExecutionData.getParentFile(), "/org/example/App.class"));
+  public void test_read_execution_data_in_parallel() throws IOException {
+    File classesDir = temp.newFolder();
+    Files.copy(TestUtils.getResource("Hello.class.toCopy"), new File(classesDir, "Hello.class"));
+    Files.copy(TestUtils.getResource("HelloWorld.class.toCopy"), new File(classesDir, "HelloWorld.class"));
 
     org.sonar.api.resources.File resource = mock(org.sonar.api.resources.File.class);
-    when(context.getResource(any(Resource.class))).thenReturn(resource);
-    when(javaClasspath.getBinaryDirs()).thenReturn(ImmutableList.of(outputDir));
+    when(javaResourceLocator.findResourceByClassName("org/sonar/plugins/jacoco/tests/Hello")).thenReturn(resource);
+    when(context.getResource(resource)).thenReturn(resource);
+
+    when(configuration.getAnalysisThreads()).thenReturn(2);
+    when(javaClasspath.getBinaryDirs()).thenReturn(ImmutableList.of(classesDir));
     when(pathResolver.relativeFile(any(File.class), any(String.class))).thenReturn(jacocoExecutionData);
 
+    sensor.analyse(project, context);
+
+    verify(context).saveMeasure(eq(resource), argThat(new IsMeasure(CoreMetrics.LINES_TO_COVER, 7.0)));
+    verify(context).saveMeasure(eq(resource), argThat(new IsMeasure(CoreMetrics.UNCOVERED_LINES, 3.0)));
+    verify(context).saveMeasure(eq(resource),
+        argThat(new IsMeasure(CoreMetrics.COVERAGE_LINE_HITS_DATA, "6=1;7=1;8=1;11=1;15=0;16=0;18=0")));
+    verify(context).saveMeasure(eq(resource), argThat(new IsMeasure(CoreMetrics.CONDITIONS_TO_COVER, 2.0)));
+    verify(context).saveMeasure(eq(resource), argThat(new IsMeasure(CoreMetrics.UNCOVERED_CONDITIONS, 2.0)));
+  }
+
+  @Test
+  public void test_read_execution_data_for_lines_covered_by_tests() throws IOException {
+    MutableTestCase[] testCases = mockTestsOfJaCoCoSensorTest2("jacoco.exec");
+    MutableTestable testAbleFile = mock(MutableTestable.class);
+    when(perspectives.as(eq(MutableTestable.class), any(org.sonar.api.resources.File.class))).thenReturn(testAbleFile);
+
+    sensor.analyse(project, context);
+
+    verify(testCases[0]).setCoverageBlock(testAbleFile, newArrayList(3, 6));
+    verify(testCases[1]).setCoverageBlock(eq(testAbleFile), any(List.class));
+  }
+
+  @Test
+  public void test_read_execution_data_of_test_classes_executed_in_parallel() throws IOException {
+    MutableTestCase[] testCases = mockTestsOfJaCoCoSensorTest2("jacoco-parallel.exec");
     MutableTestable testAbleFile = mock(MutableTestable.class);
     when(perspectives.as(eq(MutableTestable.class), any(org.sonar.api.resources.File.class))).thenReturn(testAbleFile);
 
-    MutableTestCase testCase = mock(MutableTestCase.class);
-    when(testCase.name()).thenReturn("test");
-    MutableTestPlan testPlan = mock(MutableTestPlan.class);
-    when(testPlan.testCasesByName("test")).thenReturn(newArrayList(testCase));
+    sensor.analyse(project, context);
+
+    // Coverage of the shared session is attributed to the tests of both test classes
+    verify(testCases[0]).setCoverageBlock(testAbleFile, newArrayList(3, 6));
+    verify(testCases[1]).setCoverageBlock(testAbleFile, newArrayList(3, 6));
+  }
 
-    when(perspectives.as(eq(MutableTestPlan.class), any(Resource.class))).thenReturn(testPlan);
+  @Test
+  public void should_analyze_class_once_per_distinct_probe_set() throws IOException {
+    // Tests of both classes execute App the same way, test "other" of FirstTest executes it differently
+    MutableTestCase[] testCases = mockTestsOfJaCoCoSensorTest2("jacoco-cache.exec");
+    MutableTestable testAbleFile = mock(MutableTestable.class);
+    when(perspectives.as(eq(MutableTestable.class), any(org.sonar.api.resources.File.class))).thenReturn(testAbleFile);
 
     sensor.analyse(project, context);
 
-    verify(testCase).setCoverageBlock(testAbleFile, newArrayList(3, 6));
+    verify(testCases[0]).setCoverageBlock(testAbleFile, newArrayList(3, 6));
+    verify(testCases[1]).setCoverageBlock(testAbleFile, newArrayList(3, 6));
+    // class is analyzed once per distinct probe set, plus once for the overall coverage
+    verify(javaResourceLocator, times(3)).findResourceByClassName("org/example/App");
+  }
+
+  /**
+   * Test "test" of classes org.example.FirstTest and org.example.SecondTest.
+   */
+  private MutableTestCase[] mockTestsOfJaCoCoSensorTest2(String executionData) throws IOException {
+    outputDir = TestUtils.getResource("/org/sonar/plugins/jacoco/JaCoCoSensorTest2/");
+    jacocoExecutionData = new File(outputDir, executionData);
+    Files.copy(TestUtils.getResource("/org/sonar/plugins/jacoco/JaCoCoSensorTest2/org/example/App.class.toCopy"),
+        new File(jacocoExecutionData.getParentFile(), "/org/example/App.class"));
+
+    org.sonar.api.resources.File resource = mock(org.sonar.api.resources.File.class);
+    when(context.getResource(any(Resource.class))).thenReturn(resource);
+    when(javaClasspath.getBinaryDirs()).thenReturn(ImmutableList.of(outputDir));
+    when(pathResolver.relativeFile(any(File.class), any(String.class))).thenReturn(jacocoExecutionData);
+
+    MutableTestCase[] testCases = new MutableTestCase[2];
+    String[] testClasses = {"org.example.FirstTest", "org.example.SecondTest"};
+    for (int i = 0; i < testClasses.length; i++) {
+      Resource testResource = mock(Resource.class);
+      when(javaResourceLocator.findResourceByClassName(testClasses[i])).thenReturn(testResource);
+      when(context.getResource(testResource)).thenReturn(testResource);
+
+      testCases[i] = mock(MutableTestCase.class);
+      when(testCases[i].name()).thenReturn("test");
+      MutableTestPlan testPlan = mock(MutableTestPlan.class);
+      when(testPlan.testCases()).thenReturn(newArrayList(testCases[i]));
+      when(perspectives.as(MutableTestPlan.class, testResource)).thenReturn(testPlan);
+    }
+    return testCases;
   }
 
   @Test
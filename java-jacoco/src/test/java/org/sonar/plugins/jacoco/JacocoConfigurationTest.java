@@ -64,6 +64,7 @@ public class JacocoConfigurationTest {
   public void defaults() {
     assertThat(jacocoSettings.getReportPath()).isEqualTo("target/jacoco.exec");
     assertThat(jacocoSettings.getItReportPath()).isEqualTo("target/jacoco-it.exec");
+    assertThat(jacocoSettings.getAnalysisThreads()).isEqualTo(1);
   }
 
   @Test
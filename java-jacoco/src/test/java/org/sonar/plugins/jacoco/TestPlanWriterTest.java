@@ -0,0 +1,131 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2010 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.jacoco;
+
+import org.junit.Test;
+import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.resources.Resource;
+import org.sonar.api.test.MutableTestCase;
+import org.sonar.api.test.MutableTestPlan;
+import org.sonar.api.test.MutableTestable;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestPlanWriterTest {
+
+  private final ResourcePerspectives perspectives = mock(ResourcePerspectives.class);
+  private final TestPlanWriter writer = new TestPlanWriter(perspectives);
+
+  @Test
+  public void should_resolve_perspectives_once_per_resource() {
+    Resource resource = mock(Resource.class);
+    Resource testFile = mock(Resource.class);
+    MutableTestable testable = mock(MutableTestable.class);
+    when(perspectives.as(MutableTestable.class, resource)).thenReturn(testable);
+    MutableTestCase test1 = testCase("test1");
+    MutableTestCase test2 = testCase("test2");
+    MutableTestPlan testPlan = mock(MutableTestPlan.class);
+    when(testPlan.testCases()).thenReturn(Arrays.asList(test1, test2));
+    when(perspectives.as(MutableTestPlan.class, testFile)).thenReturn(testPlan);
+
+    List<Integer> lines1 = Arrays.asList(1, 2);
+    List<Integer> lines2 = Arrays.asList(3);
+    assertThat(writer.addCoverage(resource, testFile, "test1", lines1)).isTrue();
+    assertThat(writer.addCoverage(resource, testFile, "test2", lines2)).isTrue();
+    assertThat(writer.addCoverage(resource, testFile, "unknown", lines2)).isFalse();
+    writer.save();
+
+    verify(test1).setCoverageBlock(testable, lines1);
+    verify(test2).setCoverageBlock(testable, lines2);
+    verify(perspectives, times(1)).as(MutableTestable.class, resource);
+    verify(perspectives, times(1)).as(MutableTestPlan.class, testFile);
+    verify(testPlan, times(1)).testCases();
+  }
+
+  @Test
+  public void should_not_set_coverage_when_resource_is_not_testable() {
+    Resource resource = mock(Resource.class);
+    Resource testFile = mock(Resource.class);
+
+    assertThat(writer.addCoverage(resource, testFile, "test", Arrays.asList(1))).isFalse();
+    assertThat(writer.addCoverage(resource, testFile, "test", Arrays.asList(1))).isFalse();
+
+    verify(perspectives, times(1)).as(MutableTestable.class, resource);
+    verify(perspectives, never()).as(MutableTestPlan.class, testFile);
+  }
+
+  @Test
+  public void should_save_coverage_of_single_test_immediately() {
+    Resource resource = mock(Resource.class);
+    Resource testFile = mock(Resource.class);
+    MutableTestable testable = mock(MutableTestable.class);
+    when(perspectives.as(MutableTestable.class, resource)).thenReturn(testable);
+    MutableTestCase test1 = testCase("test1");
+    MutableTestPlan testPlan = mock(MutableTestPlan.class);
+    when(testPlan.testCases()).thenReturn(Arrays.asList(test1));
+    when(perspectives.as(MutableTestPlan.class, testFile)).thenReturn(testPlan);
+
+    assertThat(writer.addCoverage(resource, testFile, "test1", Arrays.asList(3, 5))).isTrue();
+
+    verify(test1).setCoverageBlock(testable, Arrays.asList(3, 5));
+  }
+
+  @Test
+  public void should_save_coverage_of_all_tests_once_per_test_case_and_resource() {
+    Resource resource = mock(Resource.class);
+    Resource testFile = mock(Resource.class);
+    MutableTestable testable = mock(MutableTestable.class);
+    when(perspectives.as(MutableTestable.class, resource)).thenReturn(testable);
+    MutableTestCase test1 = testCase("test1");
+    MutableTestCase test2 = testCase("test2");
+    MutableTestPlan testPlan = mock(MutableTestPlan.class);
+    when(testPlan.testCases()).thenReturn(Arrays.asList(test1, test2));
+    when(perspectives.as(MutableTestPlan.class, testFile)).thenReturn(testPlan);
+
+    // as for test classes executed in parallel in two groups
+    assertThat(writer.addCoverageOfAllTests(resource, testFile, Arrays.asList(1, 3))).isTrue();
+    assertThat(writer.addCoverageOfAllTests(resource, testFile, Arrays.asList(7))).isTrue();
+    assertThat(writer.addCoverage(resource, testFile, "test1", Arrays.asList(3, 5))).isTrue();
+    verify(test1, never()).setCoverageBlock(any(MutableTestable.class), anyList());
+    verify(test2, never()).setCoverageBlock(any(MutableTestable.class), anyList());
+
+    writer.save();
+
+    verify(test1).setCoverageBlock(testable, Arrays.asList(1, 3, 5, 7));
+    verify(test2).setCoverageBlock(testable, Arrays.asList(1, 3, 7));
+  }
+
+  private static MutableTestCase testCase(String name) {
+    MutableTestCase testCase = mock(MutableTestCase.class);
+    when(testCase.name()).thenReturn(name);
+    return testCase;
+  }
+
+}
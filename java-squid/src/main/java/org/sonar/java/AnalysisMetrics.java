@@ -0,0 +1,247 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.BatchExtension;
+
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the time spent in each phase of the analysis of a module (parsing, semantic analysis, checks, bytecode, design, coverage and tests)
+ * and of some counters, shared by the sensors of the module.
+ * Values can be followed through JMX during the analysis and are written as a JSON summary to trend the performance of the analyzer.
+ *
+ * @since 2.9
+ */
+public class AnalysisMetrics implements BatchExtension, AnalysisMetricsMBean {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AnalysisMetrics.class);
+
+  public static final String REPORT_FILE_NAME = "java-analysis-metrics.json";
+  public static final String OBJECT_NAME = "org.sonar.java:type=AnalysisMetrics";
+
+  public static final String PARSE = "parse";
+  public static final String SEMANTIC = "semantic";
+  public static final String CHECKS = "checks";
+  public static final String BYTECODE = "bytecode";
+  public static final String DESIGN = "design";
+  public static final String JACOCO = "jacoco";
+  public static final String SUREFIRE = "surefire";
+
+  public static final String FILES = "files";
+  public static final String BYTES = "bytes";
+  public static final String PARSE_ERRORS = "parseErrors";
+  public static final String COMPLETED_CLASSES = "completedClasses";
+  public static final String LOADED_CLASSES = "loadedClasses";
+
+  private final Map<String, Long> times = Maps.newLinkedHashMap();
+  private final Map<String, Long> counters = Maps.newLinkedHashMap();
+  private final List<String> filesWithParseErrors = Lists.newArrayList();
+  private final SlowestFiles slowestFiles = new SlowestFiles(SlowestFiles.DEFAULT_SIZE);
+  private ObjectName objectName;
+  /**
+   * Times of the phases of the file being analyzed, null when no file is being analyzed.
+   */
+  private Map<String, Long> fileTimes;
+
+  public synchronized void addTime(String phase, long nanos) {
+    add(times, phase, nanos);
+    if (fileTimes != null) {
+      add(fileTimes, phase, nanos);
+    }
+  }
+
+  /**
+   * Times added until {@link #stopFile()} are also accumulated for the file being analyzed: files must be analyzed one at a time.
+   */
+  public synchronized void startFile() {
+    fileTimes = Maps.newLinkedHashMap();
+  }
+
+  /**
+   * @return times of the phases of the file analyzed since {@link #startFile()}
+   */
+  public synchronized Map<String, Long> stopFile() {
+    Map<String, Long> result = fileTimes == null ? Collections.<String, Long>emptyMap() : fileTimes;
+    fileTimes = null;
+    return result;
+  }
+
+  public synchronized void increment(String counter, long value) {
+    add(counters, counter, value);
+  }
+
+  public synchronized void addParseError(File file) {
+    add(counters, PARSE_ERRORS, 1);
+    filesWithParseErrors.add(file.getPath());
+  }
+
+  public void addSlowestFiles(List<SlowestFiles.FileTime> fileTimes) {
+    slowestFiles.addAll(fileTimes);
+  }
+
+  /**
+   * @return files which took the longest time to be analyzed among all the scans of the module, slowest first
+   */
+  public List<SlowestFiles.FileTime> getSlowestFiles() {
+    return slowestFiles.get();
+  }
+
+  private static void add(Map<String, Long> values, String key, long value) {
+    Long previous = values.get(key);
+    values.put(key, previous == null ? value : (previous + value));
+  }
+
+  public synchronized long getTime(String phase) {
+    return get(times, phase);
+  }
+
+  public synchronized long getCounter(String counter) {
+    return get(counters, counter);
+  }
+
+  private static long get(Map<String, Long> values, String key) {
+    Long value = values.get(key);
+    return value == null ? 0L : value;
+  }
+
+  @Override
+  public synchronized Map<String, Long> getTimes() {
+    return ImmutableMap.copyOf(times);
+  }
+
+  @Override
+  public synchronized Map<String, Long> getCounters() {
+    return ImmutableMap.copyOf(counters);
+  }
+
+  @Override
+  public synchronized List<String> getFilesWithParseErrors() {
+    return ImmutableList.copyOf(filesWithParseErrors);
+  }
+
+  /**
+   * Called by the container when the analysis of the module starts: registers this registry in the platform MBean server.
+   */
+  public void start() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(name)) {
+        server.registerMBean(this, name);
+        objectName = name;
+      }
+    } catch (JMException e) {
+      LOG.debug("Unable to register analysis metrics in JMX", e);
+    }
+  }
+
+  /**
+   * Called by the container when the analysis of the module ends.
+   */
+  public void stop() {
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (JMException e) {
+        LOG.debug("Unable to unregister analysis metrics from JMX", e);
+      }
+      objectName = null;
+    }
+  }
+
+  /**
+   * Writes times (in nanoseconds), counters, files with parse errors and slowest files as a JSON object to {@link #REPORT_FILE_NAME} in the given directory.
+   * Sensors rewrite the summary once their phase is done, so that it always covers the phases executed so far.
+   *
+   * @param workDir nothing is written when null
+   */
+  public void writeReport(@Nullable File workDir) {
+    if (workDir == null) {
+      return;
+    }
+    File file = new File(workDir, REPORT_FILE_NAME);
+    StringBuilder json = new StringBuilder("{\n  \"times\":{");
+    appendValues(json, getTimes());
+    json.append("},\n  \"counters\":{");
+    appendValues(json, getCounters());
+    json.append("},\n  \"filesWithParseErrors\":[");
+    List<String> files = getFilesWithParseErrors();
+    for (int i = 0; i < files.size(); i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append('"').append(escape(files.get(i))).append('"');
+    }
+    json.append("],\n  \"slowestFiles\":[");
+    List<SlowestFiles.FileTime> fileTimes = getSlowestFiles();
+    for (int i = 0; i < fileTimes.size(); i++) {
+      SlowestFiles.FileTime fileTime = fileTimes.get(i);
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("\n    {\"file\":\"").append(escape(fileTime.getPath()))
+        .append("\",\"time\":").append(fileTime.getTime())
+        .append(",\"phases\":{");
+      appendValues(json, fileTime.getPhases());
+      json.append("}}");
+    }
+    json.append("]\n}\n");
+    try {
+      Files.write(json, file, Charsets.UTF_8);
+      LOG.debug("Analysis metrics written to {}", file);
+    } catch (IOException e) {
+      LOG.warn("Unable to write analysis metrics to " + file, e);
+    }
+  }
+
+  private static void appendValues(StringBuilder json, Map<String, Long> values) {
+    boolean first = true;
+    for (Map.Entry<String, Long> entry : values.entrySet()) {
+      if (!first) {
+        json.append(',');
+      }
+      json.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+      first = false;
+    }
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+}
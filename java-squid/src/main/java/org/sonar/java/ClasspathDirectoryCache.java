@@ -0,0 +1,80 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import org.sonar.api.BatchExtension;
+import org.sonar.api.batch.InstantiationStrategy;
+
+import javax.annotation.CheckForNull;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classpath elements matching a pattern in a directory, shared by all the modules of the analyzed project:
+ * modules usually refer to the same libraries, for instance in the local Maven repository, which is then walked only once.
+ * Only the matching files are kept, not the listing of the directory, which may be as large as the whole project.
+ *
+ * @since 2.9
+ */
+@InstantiationStrategy(InstantiationStrategy.PER_BATCH)
+public class ClasspathDirectoryCache implements BatchExtension {
+
+  private final Map<Key, List<File>> matchingFiles = Maps.newHashMap();
+
+  @CheckForNull
+  synchronized List<File> get(File dir, String pattern, boolean libraryProperty) {
+    return matchingFiles.get(new Key(dir, pattern, libraryProperty));
+  }
+
+  synchronized void put(File dir, String pattern, boolean libraryProperty, List<File> files) {
+    matchingFiles.put(new Key(dir, pattern, libraryProperty), ImmutableList.copyOf(files));
+  }
+
+  private static class Key {
+    private final File dir;
+    private final String pattern;
+    private final boolean libraryProperty;
+
+    Key(File dir, String pattern, boolean libraryProperty) {
+      this.dir = dir.getAbsoluteFile();
+      this.pattern = pattern;
+      this.libraryProperty = libraryProperty;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return libraryProperty == other.libraryProperty && dir.equals(other.dir) && pattern.equals(other.pattern);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(dir, pattern, libraryProperty);
+    }
+  }
+
+}
@@ -41,21 +41,26 @@ public class DefaultJavaResourceLocator implements JavaResourceLocator, JavaFile
 
   private static final Logger LOG = LoggerFactory.getLogger(JavaResourceLocator.class);
 
+  /**
+   * Shared by all the files without {@code @SuppressWarnings}: never modified.
+   */
+  private static final IgnoredLinesIndex NO_IGNORED_LINES = new IgnoredLinesIndex();
+
   private final Project project;
   private final JavaClasspath javaClasspath;
   @VisibleForTesting
   Map<String, Resource> resourcesByClass;
   private final Map<String, String> sourceFileByClass;
-  private final Map<String, Integer> methodStartLines;
+  private final MethodStartLines methodStartLines;
   private final ResourceMapping resourceMapping;
-  private Map<String, Multimap<String, Integer>> ignoredLinesForRules;
+  private Map<String, IgnoredLinesIndex> ignoredLinesForRules;
 
   public DefaultJavaResourceLocator(Project project, JavaClasspath javaClasspath) {
     this.project = project;
     this.javaClasspath = javaClasspath;
     resourcesByClass = Maps.newHashMap();
     sourceFileByClass = Maps.newHashMap();
-    methodStartLines = Maps.newHashMap();
+    methodStartLines = new MethodStartLines();
     resourceMapping = new ResourceMapping();
     ignoredLinesForRules = Maps.newHashMap();
   }
@@ -112,8 +117,22 @@ public class DefaultJavaResourceLocator implements JavaResourceLocator, JavaFile
     return resourceMapping;
   }
 
+  /**
+   * Lines are expanded from {@link #getIgnoredLinesIndexes()} upon each call: prefer the latter.
+   */
   @Override
   public Map<String, Multimap<String, Integer>> getIgnoredLinesForRules() {
+    Map<String, Multimap<String, Integer>> result = Maps.newHashMap();
+    for (Map.Entry<String, IgnoredLinesIndex> entry : ignoredLinesForRules.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().toMultimap());
+    }
+    return result;
+  }
+
+  /**
+   * @return lines on which issues of given rules, or of all the rules, are ignored, by key of file
+   */
+  public Map<String, IgnoredLinesIndex> getIgnoredLinesIndexes() {
     return ignoredLinesForRules;
   }
 
@@ -132,8 +151,8 @@ public class DefaultJavaResourceLocator implements JavaResourceLocator, JavaFile
         sourceFileByClass.put(classIOFileEntry.getKey(), context.getFileKey());
       }
     }
-    context.addNoSonarLines(javaFilesCache.ignoredLines());
-    ignoredLinesForRules.put(context.getFileKey(), javaFilesCache.ignoredLinesForRules());
+    IgnoredLinesIndex ignoredLines = javaFilesCache.ignoredLinesForRules();
+    ignoredLinesForRules.put(context.getFileKey(), ignoredLines.isEmpty() ? NO_IGNORED_LINES : ignoredLines);
     methodStartLines.putAll(javaFilesCache.getMethodStartLines());
   }
 
@@ -0,0 +1,91 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.Lists;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Files and directories below a directory, listed once in depth-first order, so that the descendants of a directory
+ * are the entries following it up to {@link Entry#end}.
+ */
+class DirectoryListing {
+
+  private final List<Entry> entries = Lists.newArrayList();
+
+  DirectoryListing(File dir) {
+    walk(dir, "");
+  }
+
+  private void walk(File dir, String prefix) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      String name = child.getName();
+      String relativePath = prefix + name;
+      Entry entry = new Entry(child, name, relativePath, child.isDirectory(), entries.size() + 1);
+      entries.add(entry);
+      if (entry.directory) {
+        walk(child, relativePath + File.separatorChar);
+      }
+      entry.end = entries.size();
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  Entry get(int index) {
+    return entries.get(index);
+  }
+
+  static class Entry {
+    final File file;
+    final String name;
+    /**
+     * Path relative to the listed directory, with system separators.
+     */
+    final String relativePath;
+    final boolean directory;
+    /**
+     * Index of the first descendant.
+     */
+    final int start;
+    /**
+     * Index following the last descendant.
+     */
+    int end;
+
+    Entry(File file, String name, String relativePath, boolean directory, int start) {
+      this.file = file;
+      this.name = name;
+      this.relativePath = relativePath;
+      this.directory = directory;
+      this.start = start;
+      this.end = start;
+    }
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Lines of a file on which issues of given rules are ignored, as per {@code @SuppressWarnings} annotations.
+ * Lines are kept per rule as sorted and disjoint ranges, so that memory depends on the number of annotations rather than on
+ * the number of lines they cover, and lookup is a binary search. Lines on which issues of all the rules are ignored
+ * ({@code @SuppressWarnings("all")}) are kept the same way.
+ */
+public class IgnoredLinesIndex {
+
+  private static final Interner<String> RULE_KEYS = Interners.newWeakInterner();
+
+  private final Map<String, Ranges> rangesByRuleKey = Maps.newHashMap();
+  private Ranges allRulesRanges;
+
+  public void add(String ruleKey, int startLine, int endLine) {
+    String key = RULE_KEYS.intern(ruleKey);
+    Ranges ranges = rangesByRuleKey.get(key);
+    if (ranges == null) {
+      ranges = new Ranges();
+      rangesByRuleKey.put(key, ranges);
+    }
+    ranges.add(startLine, endLine);
+  }
+
+  public void addForAllRules(int startLine, int endLine) {
+    if (allRulesRanges == null) {
+      allRulesRanges = new Ranges();
+    }
+    allRulesRanges.add(startLine, endLine);
+  }
+
+  public boolean isIgnored(String ruleKey, int line) {
+    Ranges ranges = rangesByRuleKey.get(ruleKey);
+    return (ranges != null && ranges.contains(line)) || isIgnoredForAllRules(line);
+  }
+
+  public boolean isIgnoredForAllRules(int line) {
+    return allRulesRanges != null && allRulesRanges.contains(line);
+  }
+
+  public boolean hasLinesIgnoredForAllRules() {
+    return allRulesRanges != null;
+  }
+
+  /**
+   * Expands ranges of all the rules into the given lines, as expected by {@link org.sonar.api.checks.NoSonarFilter}:
+   * to be done only when these lines are needed, one file at a time.
+   */
+  public void addLinesIgnoredForAllRules(Collection<Integer> lines) {
+    if (allRulesRanges != null) {
+      allRulesRanges.addLinesTo(lines);
+    }
+  }
+
+  /**
+   * Expands ranges into one entry per line and rule: only to be used for compatibility.
+   */
+  Multimap<String, Integer> toMultimap() {
+    Multimap<String, Integer> result = HashMultimap.create();
+    for (Map.Entry<String, Ranges> entry : rangesByRuleKey.entrySet()) {
+      entry.getValue().addLinesTo(result.get(entry.getKey()));
+    }
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return rangesByRuleKey.isEmpty() && allRulesRanges == null;
+  }
+
+  private static class Ranges {
+
+    /**
+     * Start and end lines (both inclusive) of each range, one after the other.
+     */
+    private int[] bounds = new int[2];
+    private int size = 0;
+
+    /**
+     * Range is merged in place with the ones it overlaps or is adjacent to, like the ones of annotations nested into each other.
+     */
+    void add(int startLine, int endLine) {
+      int count = size / 2;
+      // first range which ends at or after the line preceding the new one: all the previous ones stay untouched
+      int first = 0;
+      int high = count;
+      while (first < high) {
+        int mid = (first + high) >>> 1;
+        if (bounds[2 * mid + 1] < startLine - 1) {
+          first = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      // ranges from the first one which start at or before the line following the new one are merged with it
+      int last = first;
+      while (last < count && bounds[2 * last] <= endLine + 1) {
+        last++;
+      }
+
+      if (first == last) {
+        if (size == bounds.length) {
+          bounds = Arrays.copyOf(bounds, size * 2);
+        }
+        System.arraycopy(bounds, 2 * first, bounds, 2 * first + 2, size - 2 * first);
+        bounds[2 * first] = startLine;
+        bounds[2 * first + 1] = endLine;
+        size += 2;
+      } else {
+        bounds[2 * first] = Math.min(startLine, bounds[2 * first]);
+        bounds[2 * first + 1] = Math.max(endLine, bounds[2 * last - 1]);
+        System.arraycopy(bounds, 2 * last, bounds, 2 * first + 2, size - 2 * last);
+        size -= 2 * (last - first - 1);
+      }
+    }
+
+    void addLinesTo(Collection<Integer> lines) {
+      for (int i = 0; i < size; i += 2) {
+        for (int line = bounds[i]; line <= bounds[i + 1]; line++) {
+          lines.add(line);
+        }
+      }
+    }
+
+    boolean contains(int line) {
+      int low = 0;
+      int high = size / 2 - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (line < bounds[2 * mid]) {
+          high = mid - 1;
+        } else if (line > bounds[2 * mid + 1]) {
+          low = mid + 1;
+        } else {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+}
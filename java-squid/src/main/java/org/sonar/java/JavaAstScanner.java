@@ -20,11 +20,12 @@
 package org.sonar.java;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.sonar.sslr.impl.Parser;
 import org.sonar.java.ast.AstScanner;
 import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.ast.parser.ParseBudget;
 import org.sonar.java.ast.visitors.CommentLinesVisitor;
 import org.sonar.java.ast.visitors.FileVisitor;
+import org.sonar.java.parser.sslr.ActionParser2;
 import org.sonar.squidbridge.SquidAstVisitor;
 import org.sonar.squidbridge.api.SourceCode;
 import org.sonar.squidbridge.api.SourceFile;
@@ -69,10 +70,16 @@ public final class JavaAstScanner {
   }
 
   public static AstScanner create(JavaConfiguration conf, SquidAstVisitor<LexerlessGrammar>... visitors) {
-    final Parser parser = JavaParser.createParser(conf.getCharset());
+    final ActionParser2 parser = JavaParser.createParser(conf.getCharset());
 
     AstScanner builder = new AstScanner(parser);
 
+    if (conf.getMaxFileParseTime() > 0 || conf.getMaxNestingDepth() > 0) {
+      ParseBudget budget = new ParseBudget(conf.getMaxFileParseTime(), conf.getMaxNestingDepth());
+      parser.setBudget(budget);
+      builder.setParseBudget(budget);
+    }
+
     /* Files */
     builder.withSquidAstVisitor(new FileVisitor());
 
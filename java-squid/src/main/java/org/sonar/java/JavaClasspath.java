@@ -21,15 +21,7 @@ package org.sonar.java;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOCase;
-import org.apache.commons.io.filefilter.AndFileFilter;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.FalseFileFilter;
-import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.commons.io.filefilter.OrFileFilter;
-import org.apache.commons.io.filefilter.TrueFileFilter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.project.MavenProject;
@@ -44,27 +36,35 @@ import org.sonar.api.utils.WildcardPattern;
 
 import javax.annotation.Nullable;
 import java.io.File;
-import java.io.FileFilter;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
-
-import static org.apache.commons.io.filefilter.FileFilterUtils.suffixFileFilter;
+import java.util.Locale;
 
 public class JavaClasspath implements BatchExtension {
 
   private static final char SEPARATOR = ',';
+  private static final String JAR = ".jar";
+  private static final String ZIP = ".zip";
   private static final Logger LOG = LoggerFactory.getLogger(JavaClasspath.class);
 
   private List<File> binaries;
   private List<File> elements;
   private boolean validateLibraries;
+  private final ClasspathDirectoryCache directoryCache;
 
   public JavaClasspath(Project project, Settings settings, FileSystem fileSystem) {
-    this(project, settings, fileSystem, null);
+    this(project, settings, fileSystem, null, new ClasspathDirectoryCache());
   }
 
   public JavaClasspath(Project project, Settings settings, FileSystem fileSystem, @Nullable MavenProject pom) {
+    this(project, settings, fileSystem, pom, new ClasspathDirectoryCache());
+  }
+
+  public JavaClasspath(Project project, Settings settings, FileSystem fileSystem, ClasspathDirectoryCache directoryCache) {
+    this(project, settings, fileSystem, null, directoryCache);
+  }
+
+  public JavaClasspath(Project project, Settings settings, FileSystem fileSystem, @Nullable MavenProject pom, ClasspathDirectoryCache directoryCache) {
+    this.directoryCache = directoryCache;
     validateLibraries = project.getModules().isEmpty();
     binaries = getFilesFromProperty(JavaClasspathProperties.SONAR_JAVA_BINARIES, settings, fileSystem.baseDir());
     List<File> libraries = getFilesFromProperty(JavaClasspathProperties.SONAR_JAVA_LIBRARIES, settings, fileSystem.baseDir());
@@ -147,44 +147,92 @@ public class JavaClasspath implements BatchExtension {
     return getMatchingFiles(filePattern, dir, libraryProperty);
   }
 
+  /**
+   * Matching files are computed once per directory and pattern for all the modules, see {@link ClasspathDirectoryCache}.
+   */
   private List<File> getMatchingFiles(String pattern, File dir, boolean libraryProperty) {
-    WilcardPatternFileFilter wilcardPatternFileFilter = new WilcardPatternFileFilter(dir, pattern);
-    FileFilter fileFilter = wilcardPatternFileFilter;
+    if (pattern.isEmpty() && !libraryProperty) {
+      // e.g. "target/classes/": only the directory itself, which does not need to be listed
+      return Lists.newArrayList(dir);
+    }
+    List<File> files = directoryCache.get(dir, pattern, libraryProperty);
+    if (files == null) {
+      files = getMatchingFiles(pattern, dir, libraryProperty, new DirectoryListing(dir));
+      directoryCache.put(dir, pattern, libraryProperty, files);
+    }
+    return files;
+  }
+
+  /**
+   * Matches the pattern against paths relative to the given directory, using a listing of the directory which is walked only once.
+   * Directories matching the pattern of a library property are searched for archives.
+   */
+  private static List<File> getMatchingFiles(String pattern, File dir, boolean libraryProperty, DirectoryListing listing) {
+    WildcardPattern wildcardPattern = WildcardPattern.create(FilenameUtils.separatorsToSystem(pattern), File.separator);
     List<File> files = Lists.newArrayList();
-    if (libraryProperty) {
-      if (pattern.endsWith("*")) {
-        fileFilter = new AndFileFilter((IOFileFilter) fileFilter,
-            new OrFileFilter(Lists.newArrayList(suffixFileFilter(".jar", IOCase.INSENSITIVE), suffixFileFilter(".zip", IOCase.INSENSITIVE))));
-      }
-      //find jar and zip files
-      files.addAll(Lists.newArrayList(FileUtils.listFiles(dir, (IOFileFilter) fileFilter, TrueFileFilter.TRUE)));
-    }
-    //find directories matching pattern.
-    IOFileFilter subdirectories = pattern.isEmpty() ? FalseFileFilter.FALSE : TrueFileFilter.TRUE;
-    Collection<File> dirs = FileUtils.listFilesAndDirs(dir, new AndFileFilter(wilcardPatternFileFilter, DirectoryFileFilter.DIRECTORY), subdirectories);
-    //remove searching dir from matching as listFilesAndDirs always includes it in the list see https://issues.apache.org/jira/browse/IO-328
-    if (!pattern.isEmpty()) {
-      dirs.remove(dir);
-      //remove subdirectories that were included during search
-      Iterator<File> iterator = dirs.iterator();
-      while (iterator.hasNext()) {
-        File matchingDir = iterator.next();
-        if (!wilcardPatternFileFilter.accept(matchingDir)) {
-          iterator.remove();
+    List<DirectoryListing.Entry> dirs = Lists.newArrayList();
+    boolean archivesOnly = pattern.endsWith("*");
+    for (int i = 0; i < listing.size(); i++) {
+      DirectoryListing.Entry entry = listing.get(i);
+      if (!pattern.isEmpty() && wildcardPattern.match(entry.relativePath)) {
+        if (entry.directory) {
+          dirs.add(entry);
+        } else if (libraryProperty && (!archivesOnly || isArchive(entry.name))) {
+          files.add(entry.file);
         }
       }
     }
-
+    if (pattern.isEmpty()) {
+      if (libraryProperty) {
+        addArchives(listing, 0, listing.size(), files);
+      }
+      files.add(dir);
+      return files;
+    }
     if (libraryProperty) {
-      for (File directory : dirs) {
-        files.addAll(getMatchingFiles("**/*.jar", directory, true));
-        files.addAll(getMatchingFiles("**/*.zip", directory, true));
+      for (DirectoryListing.Entry directory : dirs) {
+        addArchives(listing, directory.start, directory.end, files);
       }
     }
-    files.addAll(dirs);
+    for (DirectoryListing.Entry directory : dirs) {
+      files.add(directory.file);
+    }
     return files;
   }
 
+  private static boolean isArchive(String name) {
+    String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+    return lowerCaseName.endsWith(JAR) || lowerCaseName.endsWith(ZIP);
+  }
+
+  /**
+   * Adds "**&#47;*.jar" then "**&#47;*.zip" entries among the given range of the listing, archives found in matching directories included.
+   */
+  private static void addArchives(DirectoryListing listing, int start, int end, List<File> files) {
+    addEntriesNamedLike(listing, start, end, JAR, files);
+    addEntriesNamedLike(listing, start, end, ZIP, files);
+  }
+
+  private static void addEntriesNamedLike(DirectoryListing listing, int start, int end, String extension, List<File> files) {
+    List<DirectoryListing.Entry> dirs = Lists.newArrayList();
+    for (int i = start; i < end; i++) {
+      DirectoryListing.Entry entry = listing.get(i);
+      if (entry.name.endsWith(extension)) {
+        if (entry.directory) {
+          dirs.add(entry);
+        } else {
+          files.add(entry.file);
+        }
+      }
+    }
+    for (DirectoryListing.Entry directory : dirs) {
+      addArchives(listing, directory.start, directory.end, files);
+    }
+    for (DirectoryListing.Entry directory : dirs) {
+      files.add(directory.file);
+    }
+  }
+
   private File resolvePath(File baseDir, String fileName) {
     File file = new File(fileName);
     if (!file.isAbsolute()) {
@@ -200,26 +248,4 @@ public class JavaClasspath implements BatchExtension {
   public List<File> getBinaryDirs() {
     return binaries;
   }
-
-  private static class WilcardPatternFileFilter implements IOFileFilter {
-    private File baseDir;
-    private WildcardPattern wildcardPattern;
-
-    public WilcardPatternFileFilter(File baseDir, String wildcardPattern) {
-      this.baseDir = baseDir;
-      this.wildcardPattern = WildcardPattern.create(FilenameUtils.separatorsToSystem(wildcardPattern), File.separator);
-    }
-
-    @Override
-    public boolean accept(File dir, String name) {
-      return accept(new File(dir, name));
-    }
-
-    @Override
-    public boolean accept(File file) {
-      String path = file.getAbsolutePath();
-      path = path.substring(baseDir.getAbsolutePath().length() + 1);
-      return wildcardPattern.match(path);
-    }
-  }
 }
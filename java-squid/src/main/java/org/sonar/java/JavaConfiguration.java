@@ -25,6 +25,9 @@ public class JavaConfiguration {
 
   private final Charset charset;
   private boolean analyzePropertyAccessors = true;
+  private boolean profileVisitors = false;
+  private long maxFileParseTime = 0;
+  private int maxNestingDepth = 0;
 
   public JavaConfiguration(Charset charset) {
     this.charset = charset;
@@ -42,4 +45,34 @@ public class JavaConfiguration {
     this.analyzePropertyAccessors = analyzePropertyAccessors;
   }
 
+  public boolean isProfileVisitors() {
+    return profileVisitors;
+  }
+
+  public void setProfileVisitors(boolean profileVisitors) {
+    this.profileVisitors = profileVisitors;
+  }
+
+  /**
+   * @return maximum time in milliseconds to parse a single file, 0 for no limit
+   */
+  public long getMaxFileParseTime() {
+    return maxFileParseTime;
+  }
+
+  public void setMaxFileParseTime(long maxFileParseTime) {
+    this.maxFileParseTime = maxFileParseTime;
+  }
+
+  /**
+   * @return maximum nesting depth of the syntax tree of a single file, 0 for no limit
+   */
+  public int getMaxNestingDepth() {
+    return maxNestingDepth;
+  }
+
+  public void setMaxNestingDepth(int maxNestingDepth) {
+    this.maxNestingDepth = maxNestingDepth;
+  }
+
 }
@@ -20,11 +20,8 @@
 package org.sonar.java;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.java.model.InternalSyntaxToken;
 import org.sonar.java.model.JavaTree;
@@ -48,7 +45,6 @@ import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class JavaFilesCache extends BaseTreeVisitor implements JavaFileScanner {
 
@@ -60,9 +56,7 @@ public class JavaFilesCache extends BaseTreeVisitor implements JavaFileScanner {
   Map<String, Integer> methodStartLines = Maps.newHashMap();
 
   @VisibleForTesting
-  Set<Integer> ignoredLines = Sets.newHashSet();
-  @VisibleForTesting
-  Multimap<String, Integer> ignoredLinesForRules = HashMultimap.create();
+  IgnoredLinesIndex ignoredLinesForRules = new IgnoredLinesIndex();
 
   private File currentFile;
   private Deque<String> currentClassKey = new LinkedList<String>();
@@ -160,13 +154,10 @@ public class JavaFilesCache extends BaseTreeVisitor implements JavaFileScanner {
     }
 
     for (String key : ignoredKey) {
-      boolean isAll = "all".equals(key);
-      for (int i = startLine; i <= endLine; i++) {
-        if (isAll) {
-          ignoredLines.add(i);
-        } else {
-          ignoredLinesForRules.put(key, i);
-        }
+      if ("all".equals(key)) {
+        ignoredLinesForRules.addForAllRules(startLine, endLine);
+      } else {
+        ignoredLinesForRules.add(key, startLine, endLine);
       }
     }
   }
@@ -204,11 +195,7 @@ public class JavaFilesCache extends BaseTreeVisitor implements JavaFileScanner {
     return value.substring(1, value.length() - 1);
   }
 
-  public Set<Integer> ignoredLines() {
-    return ignoredLines;
-  }
-
-  public Multimap<String, Integer> ignoredLinesForRules() {
+  public IgnoredLinesIndex ignoredLinesForRules() {
     return ignoredLinesForRules;
   }
 }
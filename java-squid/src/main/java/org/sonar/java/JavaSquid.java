@@ -43,6 +43,7 @@ import org.sonar.squidbridge.api.SourceCode;
 import org.sonar.squidbridge.api.SourceCodeSearchEngine;
 import org.sonar.squidbridge.indexer.SquidIndex;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Arrays;
@@ -57,6 +58,8 @@ public class JavaSquid implements SourceCodeSearchEngine {
   private final AstScanner astScannerForTests;
   private final BytecodeScanner bytecodeScanner;
   private final DirectedGraph<Resource, Dependency> graph = new DirectedGraph<Resource, Dependency>();
+  private final VisitorsProfiler visitorsProfiler;
+  private final AnalysisMetrics metrics;
 
   private boolean bytecodeScanned = false;
 
@@ -68,8 +71,18 @@ public class JavaSquid implements SourceCodeSearchEngine {
   public JavaSquid(JavaConfiguration conf,
                    @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
                    JavaResourceLocator javaResourceLocator, CodeVisitor... visitors) {
+    this(conf, sonarComponents, measurer, javaResourceLocator, new AnalysisMetrics(), visitors);
+  }
+
+  public JavaSquid(JavaConfiguration conf,
+                   @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
+                   JavaResourceLocator javaResourceLocator, AnalysisMetrics metrics, CodeVisitor... visitors) {
 
+    this.metrics = metrics;
     astScanner = JavaAstScanner.create(conf);
+    visitorsProfiler = conf.isProfileVisitors() ? new VisitorsProfiler() : null;
+    astScanner.setProfiler(visitorsProfiler);
+    astScanner.setMetrics(metrics);
 
     Iterable<CodeVisitor> visitorsToBridge = Iterables.concat(Arrays.asList(javaResourceLocator), Arrays.asList(visitors));
     if(measurer != null) {
@@ -85,6 +98,8 @@ public class JavaSquid implements SourceCodeSearchEngine {
     VisitorsBridge visitorsBridge = new VisitorsBridge(visitorsToBridge, sonarComponents);
     visitorsBridge.setCharset(conf.getCharset());
     visitorsBridge.setAnalyseAccessors(conf.isAnalysePropertyAccessors());
+    visitorsBridge.setProfiler(visitorsProfiler);
+    visitorsBridge.setMetrics(metrics);
     astScanner.accept(visitorsBridge);
 
     if (sonarComponents != null) {
@@ -97,6 +112,8 @@ public class JavaSquid implements SourceCodeSearchEngine {
 
     bytecodeScanner = new BytecodeScanner(squidIndex, javaResourceLocator);
     bytecodeScanner.accept(new DependenciesVisitor(graph));
+    bytecodeScanner.setProfiler(visitorsProfiler);
+    bytecodeScanner.setMetrics(metrics);
 
     // External visitors (typically Check ones):
     for (CodeVisitor visitor : visitors) {
@@ -108,6 +125,8 @@ public class JavaSquid implements SourceCodeSearchEngine {
     }
 
     astScannerForTests = new AstScanner(astScanner);
+    astScannerForTests.setProfiler(visitorsProfiler);
+    astScannerForTests.setMetrics(metrics);
     astScannerForTests.accept(new TestFileVisitorsBridge(javaResourceLocator));
   }
 
@@ -164,6 +183,18 @@ public class JavaSquid implements SourceCodeSearchEngine {
     return squidIndex;
   }
 
+  /**
+   * @return null if profiling of visitors is not enabled
+   */
+  @CheckForNull
+  public VisitorsProfiler getVisitorsProfiler() {
+    return visitorsProfiler;
+  }
+
+  public AnalysisMetrics getMetrics() {
+    return metrics;
+  }
+
   public DirectedGraph<Resource, Dependency> getGraph() {
     return graph;
   }
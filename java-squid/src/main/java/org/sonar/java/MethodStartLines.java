@@ -0,0 +1,109 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.Maps;
+
+import javax.annotation.CheckForNull;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Start lines of methods of a project, as needed by bytecode checks to report issues on source files.
+ * Methods are kept per class as sorted array of signatures (shared between classes thanks to {@link NameTable}) and array of lines,
+ * instead of one entry per method keyed by fully qualified method name, which would repeat name of class for each of its methods.
+ *
+ * @since 2.9
+ */
+public class MethodStartLines {
+
+  private static final char SEPARATOR = '#';
+
+  private final Map<String, Methods> methodsByClass = Maps.newHashMap();
+
+  /**
+   * Name without separator is ignored, as it can't be retrieved by {@link #get(String)}.
+   * Parts of the name are copied before being kept, as a substring may share the characters of the whole name, depending on the JVM.
+   *
+   * @param fullyQualifiedMethodName internal name of class and signature of method separated by '#', e.g. "org/example/MyClass#method()V"
+   */
+  public void put(String fullyQualifiedMethodName, int line) {
+    int separator = fullyQualifiedMethodName.indexOf(SEPARATOR);
+    if (separator < 0) {
+      return;
+    }
+    String classKey = fullyQualifiedMethodName.substring(0, separator);
+    Methods methods = methodsByClass.get(classKey);
+    if (methods == null) {
+      methods = new Methods();
+      methodsByClass.put(new String(classKey), methods);
+    }
+    methods.put(NameTable.intern(new String(fullyQualifiedMethodName.substring(separator + 1))), line);
+  }
+
+  public void putAll(Map<String, Integer> methodStartLines) {
+    for (Map.Entry<String, Integer> entry : methodStartLines.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @CheckForNull
+  public Integer get(String fullyQualifiedMethodName) {
+    int separator = fullyQualifiedMethodName.indexOf(SEPARATOR);
+    if (separator < 0) {
+      return null;
+    }
+    Methods methods = methodsByClass.get(fullyQualifiedMethodName.substring(0, separator));
+    return methods == null ? null : methods.get(fullyQualifiedMethodName.substring(separator + 1));
+  }
+
+  private static class Methods {
+
+    private String[] signatures = new String[4];
+    private int[] lines = new int[4];
+    private int size = 0;
+
+    void put(String signature, int line) {
+      int index = Arrays.binarySearch(signatures, 0, size, signature);
+      if (index >= 0) {
+        lines[index] = line;
+        return;
+      }
+      if (size == signatures.length) {
+        signatures = Arrays.copyOf(signatures, size * 2);
+        lines = Arrays.copyOf(lines, size * 2);
+      }
+      int insertion = -index - 1;
+      System.arraycopy(signatures, insertion, signatures, insertion + 1, size - insertion);
+      System.arraycopy(lines, insertion, lines, insertion + 1, size - insertion);
+      signatures[insertion] = signature;
+      lines[insertion] = line;
+      size++;
+    }
+
+    @CheckForNull
+    Integer get(String signature) {
+      int index = Arrays.binarySearch(signatures, 0, size, signature);
+      return index < 0 ? null : lines[index];
+    }
+
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import javax.annotation.Nullable;
+
+/**
+ * Canonical instances of names met during analysis: identifiers and keywords of source files,
+ * names of symbols and members read from bytecode. The same name, for example "get" or "java/lang/String",
+ * is thus kept once in memory no matter how many trees, symbols and bytecode elements refer to it.
+ * <p/>
+ * Names are weakly referenced, so that they are released together with the last tree or symbol using them.
+ *
+ * @since 2.9
+ */
+public final class NameTable {
+
+  private static final Interner<String> NAMES = Interners.newWeakInterner();
+
+  private NameTable() {
+  }
+
+  @Nullable
+  public static String intern(@Nullable String name) {
+    return name == null ? null : NAMES.intern(name);
+  }
+
+  /**
+   * @return true if given token value is an identifier or a keyword, as opposed to literals, punctuators and comments
+   */
+  public static boolean isName(String tokenValue) {
+    return !tokenValue.isEmpty() && Character.isJavaIdentifierStart(tokenValue.charAt(0));
+  }
+
+}
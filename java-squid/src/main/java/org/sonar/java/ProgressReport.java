@@ -22,6 +22,9 @@ package org.sonar.java;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Map;
+
 public class ProgressReport implements Runnable {
 
   private final long period;
@@ -29,6 +32,7 @@ public class ProgressReport implements Runnable {
   private String message = "";
   private final Thread thread;
   private String stopMessage = "";
+  private final SlowestFiles slowestFiles = new SlowestFiles(SlowestFiles.DEFAULT_SIZE);
 
   public ProgressReport(String threadName, long period, Logger logger) {
     this.period = period;
@@ -52,6 +56,15 @@ public class ProgressReport implements Runnable {
       }
     }
     log(stopMessage);
+    if (logger.isDebugEnabled()) {
+      List<SlowestFiles.FileTime> fileTimes = slowestFiles.get();
+      if (!fileTimes.isEmpty()) {
+        logger.debug("Slowest files:");
+        for (SlowestFiles.FileTime fileTime : fileTimes) {
+          logger.debug("  " + fileTime);
+        }
+      }
+    }
   }
 
   public void start(String startMessage) {
@@ -63,6 +76,23 @@ public class ProgressReport implements Runnable {
     this.message = message;
   }
 
+  /**
+   * Records the analysis time of a file, slowest files being logged in debug after the stop message.
+   *
+   * @param time total analysis time of the file in nanoseconds
+   * @param phases time spent in each phase of the analysis of the file in nanoseconds
+   */
+  public void fileAnalyzed(String path, long time, Map<String, Long> phases) {
+    slowestFiles.add(path, time, phases);
+  }
+
+  /**
+   * @return files which took the longest time to be analyzed, slowest first
+   */
+  public List<SlowestFiles.FileTime> getSlowestFiles() {
+    return slowestFiles.get();
+  }
+
   public void stop(String stopMessage) {
     this.stopMessage = stopMessage;
     thread.interrupt();
@@ -0,0 +1,131 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the given number of files which took the longest time to be analyzed, with the time spent in each phase of their analysis.
+ * Files are kept in a min-heap, so that the fastest of the slowest files is the one evicted when a slower file is added.
+ *
+ * @since 2.9
+ */
+public class SlowestFiles {
+
+  public static final int DEFAULT_SIZE = 10;
+
+  private static final Comparator<FileTime> BY_TIME = new Comparator<FileTime>() {
+    @Override
+    public int compare(FileTime t1, FileTime t2) {
+      return t1.time == t2.time ? t1.path.compareTo(t2.path) : (t1.time < t2.time ? -1 : 1);
+    }
+  };
+
+  private final int size;
+  private final PriorityQueue<FileTime> heap;
+
+  public SlowestFiles(int size) {
+    this.size = size;
+    this.heap = new PriorityQueue<FileTime>(size + 1, BY_TIME);
+  }
+
+  /**
+   * @param time total analysis time of the file in nanoseconds
+   * @param phases time spent in each phase of the analysis of the file in nanoseconds
+   */
+  public synchronized void add(String path, long time, Map<String, Long> phases) {
+    add(new FileTime(path, time, phases));
+  }
+
+  public synchronized void addAll(Iterable<FileTime> fileTimes) {
+    for (FileTime fileTime : fileTimes) {
+      add(fileTime);
+    }
+  }
+
+  private void add(FileTime fileTime) {
+    if (heap.size() < size) {
+      heap.add(fileTime);
+    } else if (size > 0 && BY_TIME.compare(heap.peek(), fileTime) < 0) {
+      heap.poll();
+      heap.add(fileTime);
+    }
+  }
+
+  /**
+   * @return files by decreasing analysis time
+   */
+  public synchronized List<FileTime> get() {
+    List<FileTime> result = Lists.newArrayList(heap);
+    Collections.sort(result, Collections.reverseOrder(BY_TIME));
+    return result;
+  }
+
+  public static class FileTime {
+    private final String path;
+    private final long time;
+    private final Map<String, Long> phases;
+
+    FileTime(String path, long time, Map<String, Long> phases) {
+      this.path = path;
+      this.time = time;
+      this.phases = ImmutableMap.copyOf(phases);
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public long getTime() {
+      return time;
+    }
+
+    public Map<String, Long> getPhases() {
+      return phases;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder(path).append(": ").append(TimeUnit.NANOSECONDS.toMillis(time)).append(" ms");
+      if (!phases.isEmpty()) {
+        sb.append(" (");
+        boolean first = true;
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+          if (!first) {
+            sb.append(", ");
+          }
+          sb.append(phase.getKey()).append(": ").append(TimeUnit.NANOSECONDS.toMillis(phase.getValue())).append(" ms");
+          first = false;
+        }
+        sb.append(')');
+      }
+      return sb.toString();
+    }
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.check.Rule;
+
+import javax.annotation.CheckForNull;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates, for each visitor (typically a check, identified by the key of its rule), the wall time, the CPU time and the bytes allocated by the current thread
+ * while it is executed. CPU time and allocated bytes are only collected when supported by the JVM.
+ */
+public class VisitorsProfiler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VisitorsProfiler.class);
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private final boolean cpuTimeSupported;
+  private final Method allocatedBytesMethod;
+  private final Map<String, Stats> statsByVisitor = Maps.newHashMap();
+  private final Map<Class<?>, String> nameByClass = Maps.newHashMap();
+
+  public VisitorsProfiler() {
+    cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    allocatedBytesMethod = allocatedBytesMethod(threadMXBean);
+  }
+
+  /**
+   * Thread allocated bytes are only available through the HotSpot specific extension of {@link ThreadMXBean}.
+   */
+  @CheckForNull
+  private static Method allocatedBytesMethod(ThreadMXBean threadMXBean) {
+    try {
+      Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+      return (Long) method.invoke(threadMXBean, Thread.currentThread().getId()) >= 0 ? method : null;
+    } catch (Exception e) {
+      LOG.debug("Allocated bytes per thread are not available", e);
+      return null;
+    }
+  }
+
+  public Sample start() {
+    return new Sample(System.nanoTime(), cpuTime(), allocatedBytes());
+  }
+
+  public void stop(Object visitor, Sample start) {
+    long wallTime = System.nanoTime() - start.wallTime;
+    long cpuTime = cpuTime() - start.cpuTime;
+    long allocatedBytes = allocatedBytes() - start.allocatedBytes;
+    String name = name(visitor.getClass());
+    Stats stats = statsByVisitor.get(name);
+    if (stats == null) {
+      stats = new Stats(name);
+      statsByVisitor.put(name, stats);
+    }
+    stats.calls++;
+    stats.wallTime += wallTime;
+    stats.cpuTime += cpuTime;
+    stats.allocatedBytes += allocatedBytes;
+  }
+
+  /**
+   * @return key of the rule implemented by the visitor, or name of its class for visitors which are not rules
+   */
+  private String name(Class<?> visitorClass) {
+    String name = nameByClass.get(visitorClass);
+    if (name == null) {
+      Rule rule = AnnotationUtils.getAnnotation(visitorClass, Rule.class);
+      name = rule == null ? visitorClass.getName() : rule.key();
+      nameByClass.put(visitorClass, name);
+    }
+    return name;
+  }
+
+  private long cpuTime() {
+    return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+  }
+
+  private long allocatedBytes() {
+    if (allocatedBytesMethod == null) {
+      return 0L;
+    }
+    try {
+      return (Long) allocatedBytesMethod.invoke(threadMXBean, Thread.currentThread().getId());
+    } catch (Exception e) {
+      return 0L;
+    }
+  }
+
+  /**
+   * @return statistics of each visitor, by decreasing wall time
+   */
+  public List<Stats> getStats() {
+    List<Stats> result = Lists.newArrayList(statsByVisitor.values());
+    Collections.sort(result, new Comparator<Stats>() {
+      @Override
+      public int compare(Stats s1, Stats s2) {
+        return s1.wallTime == s2.wallTime ? s1.name.compareTo(s2.name) : (s1.wallTime < s2.wallTime ? 1 : -1);
+      }
+    });
+    return result;
+  }
+
+  public void logSummary(int limit) {
+    List<Stats> stats = getStats();
+    LOG.info("Most time consuming visitors:");
+    for (Stats visitorStats : stats.subList(0, Math.min(limit, stats.size()))) {
+      LOG.info("  {}: {} ms, {} ms CPU, {} KB allocated, {} calls", new Object[] {visitorStats.name,
+        TimeUnit.NANOSECONDS.toMillis(visitorStats.wallTime), TimeUnit.NANOSECONDS.toMillis(visitorStats.cpuTime), visitorStats.allocatedBytes / 1024, visitorStats.calls});
+    }
+  }
+
+  /**
+   * Writes statistics of every visitor as a JSON array, times being in nanoseconds.
+   */
+  public void writeReport(File file) {
+    StringBuilder json = new StringBuilder("[");
+    List<Stats> stats = getStats();
+    for (int i = 0; i < stats.size(); i++) {
+      Stats visitorStats = stats.get(i);
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("\n  {\"visitor\":\"").append(visitorStats.name)
+        .append("\",\"calls\":").append(visitorStats.calls)
+        .append(",\"wallTime\":").append(visitorStats.wallTime)
+        .append(",\"cpuTime\":").append(visitorStats.cpuTime)
+        .append(",\"allocatedBytes\":").append(visitorStats.allocatedBytes)
+        .append('}');
+    }
+    json.append("\n]\n");
+    try {
+      Files.write(json, file, Charsets.UTF_8);
+      LOG.info("Visitors profiling report written to {}", file);
+    } catch (IOException e) {
+      LOG.warn("Unable to write visitors profiling report to " + file, e);
+    }
+  }
+
+  public static class Sample {
+    private final long wallTime;
+    private final long cpuTime;
+    private final long allocatedBytes;
+
+    private Sample(long wallTime, long cpuTime, long allocatedBytes) {
+      this.wallTime = wallTime;
+      this.cpuTime = cpuTime;
+      this.allocatedBytes = allocatedBytes;
+    }
+  }
+
+  public static class Stats {
+    private final String name;
+    private long calls;
+    private long wallTime;
+    private long cpuTime;
+    private long allocatedBytes;
+
+    private Stats(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getCalls() {
+      return calls;
+    }
+
+    public long getWallTime() {
+      return wallTime;
+    }
+
+    public long getCpuTime() {
+      return cpuTime;
+    }
+
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+  }
+
+}
@@ -22,14 +22,19 @@ package org.sonar.java.ast;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstVisitor;
 import com.sonar.sslr.api.Grammar;
 import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.impl.Parser;
 import com.sonar.sslr.impl.ast.AstWalker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.ProgressReport;
+import org.sonar.java.VisitorsProfiler;
+import org.sonar.java.ast.parser.ParseBudget;
 import org.sonar.java.ast.visitors.VisitorContext;
+import org.sonar.java.model.VisitorsBridge;
 import org.sonar.squidbridge.AstScannerExceptionHandler;
 import org.sonar.squidbridge.CommentAnalyser;
 import org.sonar.squidbridge.SquidAstVisitor;
@@ -40,7 +45,9 @@ import org.sonar.squidbridge.api.SourceProject;
 import org.sonar.squidbridge.indexer.SquidIndex;
 import org.sonar.sslr.parser.LexerlessGrammar;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -53,6 +60,9 @@ public class AstScanner {
   private final List<AstScannerExceptionHandler> astScannerExceptionHandlers = Lists.newArrayList();
   private final Parser<LexerlessGrammar> parser;
   private CommentAnalyser commentAnalyser;
+  private VisitorsProfiler profiler;
+  private AnalysisMetrics metrics;
+  private ParseBudget budget;
 
   public AstScanner(Parser<LexerlessGrammar> parser) {
     this.parser = parser;
@@ -65,6 +75,7 @@ public class AstScanner {
   public AstScanner(AstScanner astScanner) {
     this.parser = astScanner.parser;
     this.index = astScanner.index;
+    this.budget = astScanner.budget;
   }
 
   public void scan(Iterable<File> files) {
@@ -90,7 +101,7 @@ public class AstScanner {
       visitor.init();
     }
 
-    AstWalker astWalker = new AstWalker(visitors);
+    AstWalker astWalker = new AstWalker(profiler == null ? visitors : profiledVisitors());
     int size = Iterables.size(files);
     ProgressReport progressReport = new ProgressReport("Report about progress of Java AST analyzer", TimeUnit.SECONDS.toMillis(10));
     progressReport.start(size + " source files to be analyzed");
@@ -102,8 +113,12 @@ public class AstScanner {
 
       context.setFile(file);
 
+      long start = System.nanoTime();
+      if (metrics != null) {
+        metrics.startFile();
+      }
       try {
-        AstNode ast = parser.parse(file);
+        AstNode ast = parse(file);
         astWalker.walkAndVisit(ast);
       } catch (RecognitionException e) {
         LOG.error("Unable to parse source file : " + file.getAbsolutePath());
@@ -113,15 +128,52 @@ public class AstScanner {
       } catch (Exception e) {
         throw new AnalysisException(getAnalyisExceptionMessage(file), e);
       }
+      progressReport.fileAnalyzed(file.getPath(), System.nanoTime() - start, metrics == null ? Collections.<String, Long>emptyMap() : metrics.stopFile());
     }
     progressReport.stop(size + "/" + size + " source files analyzed");
+    if (metrics != null) {
+      metrics.addSlowestFiles(progressReport.getSlowestFiles());
+    }
 
     for (SquidAstVisitor<LexerlessGrammar> visitor : visitors) {
       visitor.destroy();
     }
   }
 
+  private AstNode parse(File file) {
+    if (budget != null) {
+      budget.start();
+    }
+    if (metrics != null) {
+      metrics.increment(AnalysisMetrics.FILES, 1);
+      metrics.increment(AnalysisMetrics.BYTES, file.length());
+    }
+    long start = System.nanoTime();
+    try {
+      return parser.parse(file);
+    } catch (StackOverflowError e) {
+      // Last resort for pathological input when nesting depth is not limited by the budget: only this file is skipped
+      throw new RecognitionException(1, "Nesting is too deep", e);
+    } finally {
+      if (metrics != null) {
+        metrics.addTime(AnalysisMetrics.PARSE, System.nanoTime() - start);
+      }
+    }
+  }
+
+  private List<AstVisitor> profiledVisitors() {
+    List<AstVisitor> result = Lists.newArrayList();
+    for (SquidAstVisitor<LexerlessGrammar> visitor : visitors) {
+      // scanners notified by the bridge are profiled one by one by the bridge itself
+      result.add(visitor instanceof VisitorsBridge ? visitor : ProfiledAstVisitor.create(visitor, profiler));
+    }
+    return result;
+  }
+
   private void parseErrorWalkAndVisit(RecognitionException e, File file) {
+    if (metrics != null) {
+      metrics.addParseError(file);
+    }
     try {
       // Process the exception
       for (SquidAstVisitor<? extends Grammar> visitor : visitors) {
@@ -156,6 +208,27 @@ public class AstScanner {
     return index;
   }
 
+  /**
+   * @param profiler accumulates execution time of each visitor, null to not profile visitors
+   */
+  public void setProfiler(@Nullable VisitorsProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  /**
+   * @param metrics collects number of files, size of files, parsing time and parse errors, null to not collect them
+   */
+  public void setMetrics(@Nullable AnalysisMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @param budget restarted before the parse of each file, must be the one given to the parser. Null if parsing is not limited.
+   */
+  public void setParseBudget(@Nullable ParseBudget budget) {
+    this.budget = budget;
+  }
+
   public void setCommentAnalyser(CommentAnalyser commentAnalyser) {
     this.commentAnalyser = commentAnalyser;
   }
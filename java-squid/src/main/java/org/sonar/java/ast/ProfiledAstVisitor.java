@@ -0,0 +1,103 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.ast;
+
+import com.sonar.sslr.api.AstAndTokenVisitor;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.AstNodeType;
+import com.sonar.sslr.api.AstVisitor;
+import com.sonar.sslr.api.Token;
+import org.sonar.java.VisitorsProfiler;
+
+import java.util.List;
+
+/**
+ * Delegates to a visitor while accumulating its execution time into a {@link VisitorsProfiler}.
+ */
+class ProfiledAstVisitor implements AstVisitor {
+
+  private final AstVisitor visitor;
+  private final VisitorsProfiler profiler;
+
+  private ProfiledAstVisitor(AstVisitor visitor, VisitorsProfiler profiler) {
+    this.visitor = visitor;
+    this.profiler = profiler;
+  }
+
+  static AstVisitor create(AstVisitor visitor, VisitorsProfiler profiler) {
+    if (visitor instanceof AstAndTokenVisitor) {
+      return new ProfiledAstAndTokenVisitor((AstAndTokenVisitor) visitor, profiler);
+    }
+    return new ProfiledAstVisitor(visitor, profiler);
+  }
+
+  @Override
+  public List<AstNodeType> getAstNodeTypesToVisit() {
+    return visitor.getAstNodeTypesToVisit();
+  }
+
+  @Override
+  public void visitFile(AstNode ast) {
+    VisitorsProfiler.Sample sample = profiler.start();
+    visitor.visitFile(ast);
+    profiler.stop(visitor, sample);
+  }
+
+  @Override
+  public void leaveFile(AstNode ast) {
+    VisitorsProfiler.Sample sample = profiler.start();
+    visitor.leaveFile(ast);
+    profiler.stop(visitor, sample);
+  }
+
+  @Override
+  public void visitNode(AstNode ast) {
+    VisitorsProfiler.Sample sample = profiler.start();
+    visitor.visitNode(ast);
+    profiler.stop(visitor, sample);
+  }
+
+  @Override
+  public void leaveNode(AstNode ast) {
+    VisitorsProfiler.Sample sample = profiler.start();
+    visitor.leaveNode(ast);
+    profiler.stop(visitor, sample);
+  }
+
+  private static class ProfiledAstAndTokenVisitor extends ProfiledAstVisitor implements AstAndTokenVisitor {
+
+    private final AstAndTokenVisitor visitor;
+    private final VisitorsProfiler profiler;
+
+    ProfiledAstAndTokenVisitor(AstAndTokenVisitor visitor, VisitorsProfiler profiler) {
+      super(visitor, profiler);
+      this.visitor = visitor;
+      this.profiler = profiler;
+    }
+
+    @Override
+    public void visitToken(Token token) {
+      VisitorsProfiler.Sample sample = profiler.start();
+      visitor.visitToken(token);
+      profiler.stop(visitor, sample);
+    }
+  }
+
+}
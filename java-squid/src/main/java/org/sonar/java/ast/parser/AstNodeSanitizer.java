@@ -20,45 +20,79 @@
 package org.sonar.java.ast.parser;
 
 import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.api.Token;
 
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 public class AstNodeSanitizer {
 
   private int toIndex;
+  private int line;
+  private ParseBudget budget;
 
-  public void sanitize(AstNode astNode) {
-    toIndex = 0;
-    doSanitize(astNode);
+  /**
+   * @param budget limits time and nesting depth of each sanitized tree, null for no limit
+   */
+  public void setBudget(@Nullable ParseBudget budget) {
+    this.budget = budget;
   }
 
-  private void doSanitize(AstNode astNode) {
-    List<AstNode> children = astNode.getChildren();
+  /**
+   * Tree is traversed without recursion, so that deeply nested sources (generated code for instance)
+   * can not lead to a {@link StackOverflowError}.
+   */
+  public void sanitize(AstNode astNode) {
+    toIndex = 0;
+    line = 1;
 
-    if (!children.isEmpty()) {
-      // Compound nodes
-      Token token = null;
-      int fromIndex = -1;
+    if (astNode.getChildren().isEmpty()) {
+      sanitizeLeaf(astNode);
+      return;
+    }
 
-      for (AstNode child : astNode.getChildren()) {
-        doSanitize(child);
+    Deque<AstNode> nodes = new ArrayDeque<AstNode>();
+    Deque<Iterator<AstNode>> iterators = new ArrayDeque<Iterator<AstNode>>();
+    nodes.push(astNode);
+    iterators.push(astNode.getChildren().iterator());
 
-        if (token == null && child.hasToken()) {
-          token = child.getToken();
+    while (!nodes.isEmpty()) {
+      Iterator<AstNode> iterator = iterators.peek();
+      if (iterator.hasNext()) {
+        AstNode child = iterator.next();
+        if (child.getChildren().isEmpty()) {
+          sanitizeLeaf(child);
+        } else {
+          checkBudget(nodes.size() + 1);
+          nodes.push(child);
+          iterators.push(child.getChildren().iterator());
         }
+      } else {
+        iterators.pop();
+        sanitizeCompound(nodes.pop());
+      }
+    }
+  }
 
-        if (fromIndex == -1) {
-          fromIndex = child.getFromIndex();
-        }
+  private void checkBudget(int depth) {
+    if (budget != null) {
+      String exceeded = budget.onNode(depth);
+      if (exceeded != null) {
+        throw new RecognitionException(line, exceeded);
       }
+    }
+  }
 
-      AstNodeReflector.setToken(astNode, token);
-      astNode.setFromIndex(fromIndex);
-      astNode.setToIndex(toIndex);
-    } else if (astNode.hasToken()) {
+  private void sanitizeLeaf(AstNode astNode) {
+    if (astNode.hasToken()) {
       // Token wrapper nodes
       toIndex = astNode.getToIndex();
+      line = astNode.getTokenLine();
     } else {
       // Empty nodes
       astNode.setFromIndex(toIndex);
@@ -66,4 +100,27 @@ public class AstNodeSanitizer {
     }
   }
 
+  /**
+   * Compound nodes: must be invoked after all children have been sanitized.
+   */
+  private void sanitizeCompound(AstNode astNode) {
+    List<AstNode> children = astNode.getChildren();
+    Token token = null;
+    for (AstNode child : children) {
+      if (child.hasToken()) {
+        token = child.getToken();
+        break;
+      }
+    }
+
+    AstNodeReflector.setToken(astNode, token);
+    astNode.setFromIndex(children.get(0).getFromIndex());
+    astNode.setToIndex(toIndex);
+
+    // Tree is complete at this point: release the spare capacity of children lists
+    if (children instanceof ArrayList) {
+      ((ArrayList<AstNode>) children).trimToSize();
+    }
+  }
+
 }
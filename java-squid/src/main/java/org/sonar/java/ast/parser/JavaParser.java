@@ -20,6 +20,7 @@
 package org.sonar.java.ast.parser;
 
 import org.sonar.java.parser.sslr.ActionParser2;
+import org.sonar.java.parser.sslr.ActionParser2.ActionGrammar;
 
 import java.nio.charset.Charset;
 
@@ -28,13 +29,25 @@ public class JavaParser {
   private JavaParser() {
   }
 
+  /**
+   * Parsers returned by this method share a single grammar, which is built only once per JVM.
+   * Parsers themselves are cheap to create but not thread-safe.
+   */
   public static ActionParser2 createParser(Charset charset) {
-    return new ActionParser2(
-      charset,
+    return new ActionParser2(charset, GrammarHolder.ACTION_GRAMMAR);
+  }
+
+  private static class GrammarHolder {
+
+    private GrammarHolder() {
+    }
+
+    private static final ActionGrammar ACTION_GRAMMAR = new ActionGrammar(
       JavaLexer.createGrammarBuilder(),
       JavaGrammar.class,
       new TreeFactory(),
       JavaLexer.COMPILATION_UNIT);
+
   }
 
 }
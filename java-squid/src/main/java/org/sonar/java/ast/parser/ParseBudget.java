@@ -0,0 +1,99 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.ast.parser;
+
+import javax.annotation.CheckForNull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the time and the nesting depth allowed to build the syntax tree of a single file, so that pathological
+ * sources (generated code with huge initializers or deeply nested expressions) are reported as not parsable
+ * instead of stalling the analysis.
+ * <p>
+ * Not thread-safe: each parser has its own budget, which is restarted for every file.
+ */
+public class ParseBudget {
+
+  /**
+   * Elapsed time is checked once every so many nodes, to keep the cost of {@link System#nanoTime()} negligible.
+   */
+  private static final int TIME_CHECK_INTERVAL = 1024;
+
+  private final long maxNanos;
+  private final int maxDepth;
+  private long startNanos;
+  private int nodesSinceTimeCheck;
+
+  /**
+   * @param maxTimeMillis maximum time to parse a file, 0 for no limit
+   * @param maxDepth maximum nesting depth of the syntax tree, 0 for no limit
+   */
+  public ParseBudget(long maxTimeMillis, int maxDepth) {
+    this.maxNanos = TimeUnit.MILLISECONDS.toNanos(maxTimeMillis);
+    this.maxDepth = maxDepth;
+    start();
+  }
+
+  public void start() {
+    startNanos = System.nanoTime();
+    nodesSinceTimeCheck = 0;
+  }
+
+  /**
+   * Must be invoked for each node of the syntax tree, i.e. the tree of {@link com.sonar.sslr.api.AstNode}, with its depth.
+   * Depth is deliberately not the one of the parse tree, which is much deeper because of the nesting of grammar rules.
+   *
+   * @return null if the budget is not exceeded, otherwise the reason why it is
+   */
+  @CheckForNull
+  public String onNode(int depth) {
+    if (maxDepth > 0 && depth > maxDepth) {
+      return "Nesting of the syntax tree is deeper than " + maxDepth;
+    }
+    return onNode();
+  }
+
+  /**
+   * Must be invoked for each node of a tree whose depth is not limited, like the parse tree.
+   *
+   * @return null if the time allowed to parse the file is not exceeded, otherwise the reason why it is
+   */
+  @CheckForNull
+  public String onNode() {
+    nodesSinceTimeCheck++;
+    if (nodesSinceTimeCheck == TIME_CHECK_INTERVAL) {
+      nodesSinceTimeCheck = 0;
+      return checkTime();
+    }
+    return null;
+  }
+
+  /**
+   * @return null if the time allowed to parse the file is not exceeded, otherwise the reason why it is
+   */
+  @CheckForNull
+  public String checkTime() {
+    if (maxNanos > 0 && System.nanoTime() - startNanos > maxNanos) {
+      return "Parsing takes more than " + TimeUnit.NANOSECONDS.toMillis(maxNanos) + " ms";
+    }
+    return null;
+  }
+
+}
@@ -35,7 +35,6 @@ import org.sonar.sslr.parser.LexerlessGrammar;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.util.List;
 import java.util.Set;
 
 /**
@@ -81,16 +80,27 @@ public class FileLinesVisitor extends SquidAstVisitor<LexerlessGrammar> implemen
     }
 
     linesOfCode.add(token.getLine());
-    List<Trivia> trivias = token.getTrivia();
-    for (Trivia trivia : trivias) {
+    for (Trivia trivia : token.getTrivia()) {
       if (trivia.isComment()) {
-        int baseLine = trivia.getToken().getLine();
-        String[] lines = trivia.getToken().getOriginalValue().split("(\r)?\n|\r", -1);
-        for (int i = 0; i < lines.length; i++) {
-          linesOfComments.add(baseLine + i);
+        int line = trivia.getToken().getLine();
+        linesOfComments.add(line);
+        String comment = trivia.getToken().getOriginalValue();
+        for (int i = 0; i < comment.length(); i++) {
+          if (isNewLine(comment, i)) {
+            line++;
+            linesOfComments.add(line);
+          }
         }
       }
     }
   }
 
+  /**
+   * Same line terminators as {@link org.sonar.java.parser.sslr.Input}: \n, \r\n (counted on the \n) and \r alone.
+   */
+  private static boolean isNewLine(String value, int i) {
+    char c = value.charAt(i);
+    return c == '\n' || c == '\r' && (i + 1 == value.length() || value.charAt(i + 1) != '\n');
+  }
+
 }
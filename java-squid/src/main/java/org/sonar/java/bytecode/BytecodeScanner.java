@@ -19,6 +19,8 @@
  */
 package org.sonar.java.bytecode;
 
+import org.sonar.java.AnalysisMetrics;
+import org.sonar.java.VisitorsProfiler;
 import org.sonar.java.bytecode.asm.AsmClass;
 import org.sonar.java.bytecode.asm.AsmClassProvider;
 import org.sonar.java.bytecode.asm.AsmClassProvider.DETAIL_LEVEL;
@@ -32,6 +34,7 @@ import org.sonar.squidbridge.api.CodeScanner;
 import org.sonar.squidbridge.api.CodeVisitor;
 import org.sonar.squidbridge.indexer.SquidIndex;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
@@ -40,17 +43,39 @@ public class BytecodeScanner extends CodeScanner<BytecodeVisitor> {
 
   private final SquidIndex indexer;
   private JavaResourceLocator javaResourceLocator;
+  private VisitorsProfiler profiler;
+  private AnalysisMetrics metrics;
 
   public BytecodeScanner(SquidIndex indexer, JavaResourceLocator javaResourceLocator) {
     this.indexer = indexer;
     this.javaResourceLocator = javaResourceLocator;
   }
 
+  /**
+   * @param profiler accumulates execution time of each visitor, null to not profile visitors
+   */
+  public void setProfiler(@Nullable VisitorsProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  /**
+   * @param metrics collects bytecode scan time and number of loaded classes, null to not collect them
+   */
+  public void setMetrics(@Nullable AnalysisMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   public BytecodeScanner scan(Collection<File> bytecodeFilesOrDirectories) {
+    long start = System.nanoTime();
     ClassLoader classLoader = ClassLoaderBuilder.create(bytecodeFilesOrDirectories);
-    scanClasses(javaResourceLocator.classKeys(), new AsmClassProviderImpl(classLoader));
+    AsmClassProviderImpl classProvider = new AsmClassProviderImpl(classLoader);
+    scanClasses(javaResourceLocator.classKeys(), classProvider);
     // TODO unchecked cast
     ((SquidClassLoader) classLoader).close();
+    if (metrics != null) {
+      metrics.increment(AnalysisMetrics.LOADED_CLASSES, classProvider.getLoadedClasses());
+      metrics.addTime(AnalysisMetrics.BYTECODE, System.nanoTime() - start);
+    }
     return this;
   }
 
@@ -76,7 +101,7 @@ public class BytecodeScanner extends CodeScanner<BytecodeVisitor> {
     for (String key : keys) {
       try {
         AsmClass asmClass = classProvider.getClass(key, DETAIL_LEVEL.STRUCTURE_AND_CALLS);
-        BytecodeVisitorNotifier visitorNotifier = new BytecodeVisitorNotifier(asmClass, visitorArray);
+        BytecodeVisitorNotifier visitorNotifier = new BytecodeVisitorNotifier(asmClass, visitorArray, profiler);
         visitorNotifier.notifyVisitors(indexer, javaResourceLocator);
       } catch (Exception exception) {
         throw new AnalysisException("Unable to analyze .class file " + key, exception);
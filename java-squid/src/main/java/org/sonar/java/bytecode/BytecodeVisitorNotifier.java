@@ -19,6 +19,7 @@
  */
 package org.sonar.java.bytecode;
 
+import org.sonar.java.VisitorsProfiler;
 import org.sonar.java.bytecode.asm.AsmClass;
 import org.sonar.java.bytecode.asm.AsmEdge;
 import org.sonar.java.bytecode.asm.AsmField;
@@ -28,15 +29,27 @@ import org.sonar.java.bytecode.visitor.BytecodeVisitor;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.squidbridge.indexer.SquidIndex;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
 public class BytecodeVisitorNotifier {
 
   private final AsmClass asmClass;
   private final BytecodeVisitor[] bytecodeVisitors;
+  private final VisitorsProfiler profiler;
 
   public BytecodeVisitorNotifier(AsmClass asmClass, BytecodeVisitor[] bytecodeVisitors) {
+    this(asmClass, bytecodeVisitors, null);
+  }
+
+  /**
+   * @param profiler accumulates execution time of each visitor, null to not profile visitors
+   */
+  public BytecodeVisitorNotifier(AsmClass asmClass, BytecodeVisitor[] bytecodeVisitors, @Nullable VisitorsProfiler profiler) {
     this.asmClass = asmClass;
     this.bytecodeVisitors = new BytecodeVisitor[bytecodeVisitors.length];
     System.arraycopy(bytecodeVisitors, 0, this.bytecodeVisitors, 0, bytecodeVisitors.length);
+    this.profiler = profiler;
   }
 
   public void notifyVisitors(SquidIndex indexer, JavaResourceLocator javaResourceLocator) {
@@ -64,32 +77,53 @@ public class BytecodeVisitorNotifier {
   private void callVisitEdgeForSpecificAsmResource(AsmResource resource) {
     for (AsmEdge edge : resource.getOutgoingEdges()) {
       for (BytecodeVisitor visitor : bytecodeVisitors) {
+        VisitorsProfiler.Sample sample = start();
         visitor.visitEdge(edge);
+        stop(visitor, sample);
       }
     }
   }
 
   private void callVisitMethod(AsmMethod asmMethod) {
     for (BytecodeVisitor visitor : bytecodeVisitors) {
+      VisitorsProfiler.Sample sample = start();
       visitor.visitMethod(asmMethod);
+      stop(visitor, sample);
     }
   }
 
   private void callVisitField(AsmField asmField) {
     for (BytecodeVisitor visitor : bytecodeVisitors) {
+      VisitorsProfiler.Sample sample = start();
       visitor.visitField(asmField);
+      stop(visitor, sample);
     }
   }
 
   private void callVisitClass() {
     for (BytecodeVisitor visitor : bytecodeVisitors) {
+      VisitorsProfiler.Sample sample = start();
       visitor.visitClass(asmClass);
+      stop(visitor, sample);
     }
   }
 
   private void callLeaveClass() {
     for (BytecodeVisitor visitor : bytecodeVisitors) {
+      VisitorsProfiler.Sample sample = start();
       visitor.leaveClass(asmClass);
+      stop(visitor, sample);
+    }
+  }
+
+  @CheckForNull
+  private VisitorsProfiler.Sample start() {
+    return profiler == null ? null : profiler.start();
+  }
+
+  private void stop(BytecodeVisitor visitor, @Nullable VisitorsProfiler.Sample sample) {
+    if (profiler != null) {
+      profiler.stop(visitor, sample);
     }
   }
 
@@ -20,6 +20,7 @@
 package org.sonar.java.bytecode.asm;
 
 import com.google.common.collect.Maps;
+import org.sonar.java.NameTable;
 import org.sonar.java.bytecode.asm.AsmClassProvider.DETAIL_LEVEL;
 
 import java.util.Collection;
@@ -84,7 +85,7 @@ public class AsmClass extends AsmResource {
     if (field != null) {
       return field;
     }
-    field = new AsmField(this, fieldName);
+    field = new AsmField(this, NameTable.intern(fieldName));
     addField(field);
     return field;
   }
@@ -98,7 +99,7 @@ public class AsmClass extends AsmResource {
     if (method != null) {
       return method;
     }
-    method = new AsmMethod(this, key);
+    method = new AsmMethod(this, NameTable.intern(key));
     method.setBodyLoaded(false);
     addMethod(method);
     return method;
@@ -23,6 +23,7 @@ import org.apache.commons.io.IOUtils;
 import org.objectweb.asm.ClassReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.java.NameTable;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,6 +36,7 @@ public class AsmClassProviderImpl extends AsmClassProvider {
 
   private final ClassLoader classLoader;
   private final Map<String, AsmClass> asmClassCache = new HashMap<String, AsmClass>();
+  private int loadedClasses;
 
   public AsmClassProviderImpl() {
     this.classLoader = Thread.currentThread().getContextClassLoader();
@@ -52,16 +54,26 @@ public class AsmClassProviderImpl extends AsmClassProvider {
     }
     AsmClass asmClass = getAsmClassFromCacheOrCreateIt(internalName);
     if (level.isGreaterThan(asmClass.getDetailLevel())) {
+      if (asmClass.getDetailLevel() == DETAIL_LEVEL.NOTHING) {
+        loadedClasses++;
+      }
       decoracteAsmClassFromBytecode(asmClass, level);
     }
     return asmClass;
   }
 
+  /**
+   * @return number of distinct classes whose bytecode has been read
+   */
+  public int getLoadedClasses() {
+    return loadedClasses;
+  }
+
   private AsmClass getAsmClassFromCacheOrCreateIt(String internalName) {
     AsmClass asmClass = asmClassCache.get(internalName);
     if (asmClass == null) {
-      asmClass = new AsmClass(internalName, DETAIL_LEVEL.NOTHING);
-      asmClassCache.put(internalName, asmClass);
+      asmClass = new AsmClass(NameTable.intern(internalName), DETAIL_LEVEL.NOTHING);
+      asmClassCache.put(asmClass.getInternalName(), asmClass);
     }
     return asmClass;
   }
@@ -0,0 +1,155 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.bytecode.loader;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Index of the class files contained in the elements of a classpath, built once and shared by the {@link SquidClassLoader}s created for this classpath,
+ * so that looking for a class which is not in an element does not require to probe this element.
+ * <p/>
+ * For each element, the index keeps the sorted hash codes of the names of its class files: a name whose hash code is absent is certainly not in the element,
+ * while a present hash code can be a collision, in which case the element is probed as without index.
+ *
+ * @since 2.9
+ */
+public class ClassFilesIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ClassFilesIndex.class);
+
+  private static final String CLASS_EXTENSION = ".class";
+
+  private final Map<File, int[]> hashesByElement = Maps.newHashMap();
+  private final int[] allHashes;
+
+  public ClassFilesIndex(List<File> elements) {
+    int size = 0;
+    for (File element : elements) {
+      int[] hashes = index(element);
+      if (hashes != null) {
+        hashesByElement.put(element, hashes);
+        size += hashes.length;
+      }
+    }
+    allHashes = new int[size];
+    int offset = 0;
+    for (int[] hashes : hashesByElement.values()) {
+      System.arraycopy(hashes, 0, allHashes, offset, hashes.length);
+      offset += hashes.length;
+    }
+    Arrays.sort(allHashes);
+  }
+
+  @CheckForNull
+  private static int[] index(File element) {
+    if (element.isDirectory()) {
+      List<Integer> hashes = Lists.newArrayList();
+      addClassFiles(element, "", hashes);
+      return sorted(Ints.toArray(hashes));
+    } else if (element.isFile() && element.getName().endsWith(".jar")) {
+      return jarHashes(element);
+    }
+    return null;
+  }
+
+  private static void addClassFiles(File dir, String prefix, List<Integer> hashes) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      String name = prefix + child.getName();
+      if (child.isDirectory()) {
+        addClassFiles(child, name + "/", hashes);
+      } else if (isClassFile(name)) {
+        hashes.add(name.hashCode());
+      }
+    }
+  }
+
+  @CheckForNull
+  private static int[] jarHashes(File file) {
+    JarFile jarFile = null;
+    try {
+      jarFile = new JarFile(file);
+      int[] hashes = new int[jarFile.size()];
+      int size = 0;
+      Enumeration<? extends ZipEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        String name = entries.nextElement().getName();
+        if (isClassFile(name)) {
+          hashes[size] = name.hashCode();
+          size++;
+        }
+      }
+      return sorted(Arrays.copyOf(hashes, size));
+    } catch (IOException e) {
+      LOG.debug("Unable to index " + file.getAbsolutePath(), e);
+      return null;
+    } finally {
+      if (jarFile != null) {
+        try {
+          jarFile.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  private static int[] sorted(int[] hashes) {
+    Arrays.sort(hashes);
+    return hashes;
+  }
+
+  static boolean isClassFile(String name) {
+    return name.endsWith(CLASS_EXTENSION);
+  }
+
+  /**
+   * @return false if none of the elements contains a class file with the given name
+   */
+  boolean mayContain(String name) {
+    return Arrays.binarySearch(allHashes, name.hashCode()) >= 0;
+  }
+
+  /**
+   * @return hashes of the names of the class files contained in the given element, null if the element is not indexed
+   */
+  @CheckForNull
+  int[] hashesOf(File element) {
+    return hashesByElement.get(element);
+  }
+
+}
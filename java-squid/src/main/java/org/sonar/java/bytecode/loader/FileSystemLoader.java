@@ -67,7 +67,7 @@ class FileSystemLoader implements Loader {
     InputStream is = null;
     try {
       is = new FileInputStream(file);
-      return IOUtils.toByteArray(is);
+      return ResourceBytes.read(is, file.length());
     } catch (IOException e) {
       return null;
     } finally {
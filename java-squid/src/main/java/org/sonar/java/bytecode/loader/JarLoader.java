@@ -73,7 +73,7 @@ class JarLoader implements Loader {
         return null;
       }
       is = jarFile.getInputStream(entry);
-      return IOUtils.toByteArray(is);
+      return ResourceBytes.read(is, entry.getSize());
     } catch (IOException e) {
       // TODO Godin: not sure that we should silently ignore exception here,
       // e.g. it can be thrown if file corrupted
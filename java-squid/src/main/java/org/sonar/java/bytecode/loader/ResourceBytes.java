@@ -0,0 +1,56 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.bytecode.loader;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+final class ResourceBytes {
+
+  private ResourceBytes() {
+    // only static methods
+  }
+
+  /**
+   * Reads a resource whose size is known directly into an array of this size, rather than copying it through growing buffers.
+   *
+   * @param size size of the resource, or a negative value if unknown
+   * @throws EOFException if the resource is smaller than the given size
+   */
+  static byte[] read(InputStream is, long size) throws IOException {
+    if (size < 0 || size > Integer.MAX_VALUE) {
+      return IOUtils.toByteArray(is);
+    }
+    byte[] bytes = new byte[(int) size];
+    int offset = 0;
+    while (offset < bytes.length) {
+      int read = is.read(bytes, offset, bytes.length - offset);
+      if (read < 0) {
+        throw new EOFException("Expected " + size + " bytes, but only " + offset + " were read");
+      }
+      offset += read;
+    }
+    return bytes;
+  }
+
+}
@@ -21,11 +21,13 @@ package org.sonar.java.bytecode.loader;
 
 import com.google.common.collect.Iterators;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
 
@@ -35,32 +37,56 @@ import java.util.List;
 public class SquidClassLoader extends ClassLoader implements Closeable {
 
   private final List<Loader> loaders;
+  private final List<int[]> loadersClassFiles;
+  private final ClassFilesIndex index;
 
   /**
    * @param files ordered list of files and directories from which to load classes and resources
    */
   public SquidClassLoader(List<File> files) {
+    this(files, null);
+  }
+
+  /**
+   * @param files ordered list of files and directories from which to load classes and resources
+   * @param index index of the class files of the given files, used to skip the files which do not contain a requested class, null to probe all of them
+   */
+  public SquidClassLoader(List<File> files, @Nullable ClassFilesIndex index) {
     super(null);
     loaders = new ArrayList<Loader>();
+    loadersClassFiles = new ArrayList<int[]>();
+    boolean allIndexed = index != null;
     for (File file : files) {
       if (file.exists()) {
+        Loader loader = null;
         if (file.isDirectory()) {
-          loaders.add(new FileSystemLoader(file));
+          loader = new FileSystemLoader(file);
         } else if (file.getName().endsWith(".jar")) {
-          loaders.add(new JarLoader(file));
+          loader = new JarLoader(file);
+        }
+        if (loader != null) {
+          int[] classFiles = index == null ? null : index.hashesOf(file);
+          allIndexed &= classFiles != null;
+          loaders.add(loader);
+          loadersClassFiles.add(classFiles);
         }
       }
     }
+    this.index = allIndexed ? index : null;
   }
 
   @Override
   protected Class findClass(String name) throws ClassNotFoundException {
     String resourceName = name.replace('.', '/') + ".class";
-    for (Loader loader : loaders) {
-      byte[] classBytes = loader.loadBytes(resourceName);
-      if (classBytes != null) {
-        // TODO Godin: definePackage ?
-        return defineClass(name, classBytes, 0, classBytes.length);
+    if (mayBeFound(resourceName)) {
+      for (int i = 0; i < loaders.size(); i++) {
+        if (mayContain(i, resourceName)) {
+          byte[] classBytes = loaders.get(i).loadBytes(resourceName);
+          if (classBytes != null) {
+            // TODO Godin: definePackage ?
+            return defineClass(name, classBytes, 0, classBytes.length);
+          }
+        }
       }
     }
     throw new ClassNotFoundException(name);
@@ -68,10 +94,14 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
 
   @Override
   public URL findResource(String name) {
-    for (Loader loader : loaders) {
-      URL url = loader.findResource(name);
-      if (url != null) {
-        return url;
+    if (mayBeFound(name)) {
+      for (int i = 0; i < loaders.size(); i++) {
+        if (mayContain(i, name)) {
+          URL url = loaders.get(i).findResource(name);
+          if (url != null) {
+            return url;
+          }
+        }
       }
     }
     return null;
@@ -80,15 +110,31 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   @Override
   protected Enumeration<URL> findResources(String name) throws IOException {
     List<URL> result = new ArrayList<URL>();
-    for (Loader loader : loaders) {
-      URL url = loader.findResource(name);
-      if (url != null) {
-        result.add(url);
+    if (mayBeFound(name)) {
+      for (int i = 0; i < loaders.size(); i++) {
+        if (mayContain(i, name)) {
+          URL url = loaders.get(i).findResource(name);
+          if (url != null) {
+            result.add(url);
+          }
+        }
       }
     }
     return Iterators.asEnumeration(result.iterator());
   }
 
+  /**
+   * @return false if the index tells that the resource is a class file which none of the loaders contains
+   */
+  private boolean mayBeFound(String name) {
+    return index == null || !ClassFilesIndex.isClassFile(name) || index.mayContain(name);
+  }
+
+  private boolean mayContain(int loader, String name) {
+    int[] classFiles = loadersClassFiles.get(loader);
+    return classFiles == null || !ClassFilesIndex.isClassFile(name) || Arrays.binarySearch(classFiles, name.hashCode()) >= 0;
+  }
+
   /**
    * Closes this class loader, so that it can no longer be used to load new classes or resources.
    * Any classes or resources that are already loaded, are still accessible.
@@ -31,6 +31,7 @@ import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TreeVisitor;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -70,8 +71,12 @@ public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
     return trivias;
   }
 
-  private List<SyntaxTrivia> createTrivias(Token token) {
-    List<SyntaxTrivia> result = Lists.newArrayList();
+  private static List<SyntaxTrivia> createTrivias(Token token) {
+    if (!token.hasTrivia()) {
+      // Most tokens have no trivia: share a single empty list
+      return Collections.emptyList();
+    }
+    List<SyntaxTrivia> result = Lists.newArrayListWithCapacity(token.getTrivia().size());
     for (Trivia trivia : token.getTrivia()) {
       result.add(InternalSyntaxTrivia.create(trivia.getToken().getValue(), trivia.getToken().getLine()));
     }
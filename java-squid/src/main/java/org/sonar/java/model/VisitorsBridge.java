@@ -27,9 +27,12 @@ import com.sonar.sslr.api.AstNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.CharsetAwareVisitor;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.VisitorsProfiler;
 import org.sonar.java.ast.visitors.ComplexityVisitor;
+import org.sonar.java.bytecode.loader.ClassFilesIndex;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.plugins.java.api.JavaFileScanner;
@@ -59,7 +62,10 @@ public class VisitorsBridge extends SquidAstVisitor<LexerlessGrammar> implements
   private final SonarComponents sonarComponents;
   private SemanticModel semanticModel;
   private List<File> projectClasspath;
+  private ClassFilesIndex classFilesIndex;
   private boolean analyseAccessors;
+  private VisitorsProfiler profiler;
+  private AnalysisMetrics metrics;
 
   @VisibleForTesting
   public VisitorsBridge(JavaFileScanner visitor) {
@@ -92,6 +98,20 @@ public class VisitorsBridge extends SquidAstVisitor<LexerlessGrammar> implements
     this.analyseAccessors = analyseAccessors;
   }
 
+  /**
+   * @param profiler accumulates execution time of each scanner, null to not profile scanners
+   */
+  public void setProfiler(@Nullable VisitorsProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  /**
+   * @param metrics collects time spent to build semantic models and to execute scanners, null to not collect it
+   */
+  public void setMetrics(@Nullable AnalysisMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   @Override
   public void setCharset(Charset charset) {
     for (JavaFileScanner scanner : scanners) {
@@ -107,27 +127,51 @@ public class VisitorsBridge extends SquidAstVisitor<LexerlessGrammar> implements
     if (astNode != null) {
       CompilationUnitTree tree = (CompilationUnitTree) astNode;
       if (isNotJavaLangOrSerializable()) {
+        long start = System.nanoTime();
         try {
-          semanticModel = SemanticModel.createFor(tree, getProjectClasspath());
+          semanticModel = SemanticModel.createFor(tree, getProjectClasspath(), getClassFilesIndex());
         } catch (Exception e) {
           LOG.error("Unable to create symbol table for : " + getContext().getFile().getAbsolutePath(), e);
           return;
+        } finally {
+          addTime(AnalysisMetrics.SEMANTIC, start);
         }
         createSonarSymbolTable(tree);
       } else {
         SemanticModel.handleMissingTypes(tree);
       }
       JavaFileScannerContext context = new DefaultJavaFileScannerContext(tree, (SourceFile) getContext().peekSourceCode(), getContext().getFile(), semanticModel, analyseAccessors);
+      long start = System.nanoTime();
       for (JavaFileScanner scanner : scanners) {
-        scanner.scanFile(context);
+        scan(scanner, context);
       }
+      addTime(AnalysisMetrics.CHECKS, start);
       if (semanticModel != null) {
+        if (metrics != null) {
+          metrics.increment(AnalysisMetrics.COMPLETED_CLASSES, semanticModel.getCompletedClasses());
+        }
         // Close class loader after all the checks.
         semanticModel.done();
       }
     }
   }
 
+  private void scan(JavaFileScanner scanner, JavaFileScannerContext context) {
+    if (profiler == null) {
+      scanner.scanFile(context);
+    } else {
+      VisitorsProfiler.Sample sample = profiler.start();
+      scanner.scanFile(context);
+      profiler.stop(scanner, sample);
+    }
+  }
+
+  private void addTime(String phase, long start) {
+    if (metrics != null) {
+      metrics.addTime(phase, System.nanoTime() - start);
+    }
+  }
+
   private boolean isNotJavaLangOrSerializable() {
     String[] path = getContext().peekSourceCode().getName().split(Pattern.quote(File.separator));
     boolean isJavaLang = path.length > 3 && "java".equals(path[path.length - 3]) && "lang".equals(path[path.length - 2]);
@@ -141,6 +185,16 @@ public class VisitorsBridge extends SquidAstVisitor<LexerlessGrammar> implements
     return projectClasspath;
   }
 
+  /**
+   * The project classpath is indexed once, when the first semantic model is created, rather than by each class loader.
+   */
+  private ClassFilesIndex getClassFilesIndex() {
+    if (classFilesIndex == null) {
+      classFilesIndex = new ClassFilesIndex(getProjectClasspath());
+    }
+    return classFilesIndex;
+  }
+
   private void createSonarSymbolTable(CompilationUnitTree tree) {
     if (sonarComponents != null) {
       SonarSymbolTableVisitor symVisitor = new SonarSymbolTableVisitor(sonarComponents.symbolizableFor(getContext().getFile()), semanticModel);
@@ -35,6 +35,7 @@ import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 import org.sonar.java.ast.parser.AstNodeSanitizer;
+import org.sonar.java.ast.parser.ParseBudget;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
 import org.sonar.sslr.internal.matchers.InputBuffer;
@@ -63,51 +64,39 @@ public class ActionParser2 extends Parser {
   private final Charset charset;
 
   private final AstNodeSanitizer astNodeSanitzer = new AstNodeSanitizer();
-  private final GrammarBuilderInterceptor grammarBuilderInterceptor;
+  private final ActionGrammar actionGrammar;
   private final SyntaxTreeCreator<AstNode> syntaxTreeCreator;
-  private final GrammarRuleKey rootRule;
-  private final Grammar grammar;
-  private final ParseRunner parseRunner;
+  private ParseBudget budget;
 
   public ActionParser2(Charset charset, LexerlessGrammarBuilder b, Class grammarClass, Object treeFactory, GrammarRuleKey rootRule) {
+    this(charset, new ActionGrammar(b, grammarClass, treeFactory, rootRule));
+  }
+
+  /**
+   * Creates a parser on top of an already built grammar. Such parser is cheap to create, but is not thread-safe:
+   * use one per thread and share the {@link ActionGrammar}.
+   */
+  public ActionParser2(Charset charset, ActionGrammar actionGrammar) {
     super(null);
 
     this.charset = charset;
+    this.actionGrammar = actionGrammar;
+    this.syntaxTreeCreator = new SyntaxTreeCreator<AstNode>(actionGrammar.treeFactory, actionGrammar.grammarBuilderInterceptor);
+  }
 
-    this.grammarBuilderInterceptor = new GrammarBuilderInterceptor(b);
-    Enhancer grammarEnhancer = new Enhancer();
-    grammarEnhancer.setSuperclass(grammarClass);
-    grammarEnhancer.setCallback(grammarBuilderInterceptor);
-
-    ActionMethodInterceptor actionMethodInterceptor = new ActionMethodInterceptor(grammarBuilderInterceptor);
-    Enhancer actionEnhancer = new Enhancer();
-    actionEnhancer.setSuperclass(treeFactory.getClass());
-    actionEnhancer.setCallback(actionMethodInterceptor);
-
-    Object grammar = grammarEnhancer.create(
-      new Class[] {GrammarBuilder.class, treeFactory.getClass()},
-      new Object[] {grammarBuilderInterceptor, actionEnhancer.create()});
-
-    for (Method method : grammarClass.getMethods()) {
-      if (method.getDeclaringClass().equals(Object.class)) {
-        continue;
-      }
-
-      try {
-        method.invoke(grammar);
-      } catch (InvocationTargetException e) {
-        throw Throwables.propagate(e);
-      } catch (IllegalAccessException e) {
-        throw Throwables.propagate(e);
-      }
-    }
-
-    this.syntaxTreeCreator = new SyntaxTreeCreator<AstNode>(treeFactory, grammarBuilderInterceptor);
-
-    b.setRootRule(rootRule);
-    this.rootRule = rootRule;
-    this.grammar = b.build();
-    this.parseRunner = new ParseRunner(this.grammar.getRootRule());
+  /**
+   * Limits time and nesting depth allowed for each parse: exceeding the budget leads to a {@link RecognitionException}.
+   * The budget must be restarted for every file by the caller.
+   * Note that the PEG machine can not be interrupted, so the time limit is verified only once the input is matched,
+   * then while the syntax tree is created and sanitized. Nesting depth is the one of the resulting syntax tree, verified
+   * while it is sanitized.
+   *
+   * @param budget null for no limit
+   */
+  public void setBudget(@Nullable ParseBudget budget) {
+    this.budget = budget;
+    syntaxTreeCreator.setBudget(budget);
+    astNodeSanitzer.setBudget(budget);
   }
 
   @Override
@@ -130,7 +119,7 @@ public class ActionParser2 extends Parser {
   }
 
   private AstNode parse(Input input) {
-    ParsingResult result = parseRunner.parse(input.input());
+    ParsingResult result = actionGrammar.parseRunner.parse(input.input());
 
     if (!result.isMatched()) {
       ParseError parseError = result.getParseError();
@@ -139,6 +128,12 @@ public class ActionParser2 extends Parser {
       String message = new ParseErrorFormatter().format(parseError);
       throw new RecognitionException(line, message);
     }
+    if (budget != null) {
+      String exceeded = budget.checkTime();
+      if (exceeded != null) {
+        throw new RecognitionException(input.lineAndColumnAt(result.getParseTreeRoot().getEndIndex())[0], exceeded);
+      }
+    }
 
     AstNode astNode = syntaxTreeCreator.create(result.getParseTreeRoot(), input);
     astNodeSanitzer.sanitize(astNode);
@@ -147,7 +142,7 @@ public class ActionParser2 extends Parser {
 
   @Override
   public Grammar getGrammar() {
-    return grammar;
+    return actionGrammar.grammar;
   }
 
   @Override
@@ -161,7 +156,62 @@ public class ActionParser2 extends Parser {
   }
 
   public GrammarRuleKey rootRule() {
-    return rootRule;
+    return actionGrammar.rootRule;
+  }
+
+  public ActionGrammar actionGrammar() {
+    return actionGrammar;
+  }
+
+  /**
+   * Grammar compiled from the grammar class and its rule-action mapping to the tree factory.
+   * Building it is expensive (proxies, reflective invocation of every rule, compilation), but once built it is
+   * immutable and can be shared by all parsers of the JVM.
+   */
+  public static class ActionGrammar {
+
+    private final Object treeFactory;
+    private final GrammarBuilderInterceptor grammarBuilderInterceptor;
+    private final GrammarRuleKey rootRule;
+    private final Grammar grammar;
+    private final ParseRunner parseRunner;
+
+    public ActionGrammar(LexerlessGrammarBuilder b, Class grammarClass, Object treeFactory, GrammarRuleKey rootRule) {
+      this.treeFactory = treeFactory;
+      this.grammarBuilderInterceptor = new GrammarBuilderInterceptor(b);
+      Enhancer grammarEnhancer = new Enhancer();
+      grammarEnhancer.setSuperclass(grammarClass);
+      grammarEnhancer.setCallback(grammarBuilderInterceptor);
+
+      ActionMethodInterceptor actionMethodInterceptor = new ActionMethodInterceptor(grammarBuilderInterceptor);
+      Enhancer actionEnhancer = new Enhancer();
+      actionEnhancer.setSuperclass(treeFactory.getClass());
+      actionEnhancer.setCallback(actionMethodInterceptor);
+
+      Object grammar = grammarEnhancer.create(
+        new Class[] {GrammarBuilder.class, treeFactory.getClass()},
+        new Object[] {grammarBuilderInterceptor, actionEnhancer.create()});
+
+      for (Method method : grammarClass.getMethods()) {
+        if (method.getDeclaringClass().equals(Object.class)) {
+          continue;
+        }
+
+        try {
+          method.invoke(grammar);
+        } catch (InvocationTargetException e) {
+          throw Throwables.propagate(e);
+        } catch (IllegalAccessException e) {
+          throw Throwables.propagate(e);
+        }
+      }
+
+      b.setRootRule(rootRule);
+      this.rootRule = rootRule;
+      this.grammar = b.build();
+      this.parseRunner = new ParseRunner(this.grammar.getRootRule());
+    }
+
   }
 
   public static class GrammarBuilderInterceptor implements MethodInterceptor, GrammarBuilder, NonterminalBuilder {
@@ -19,12 +19,9 @@
  */
 package org.sonar.java.parser.sslr;
 
-import com.google.common.collect.Lists;
-
 import java.io.File;
 import java.net.URI;
 import java.util.Arrays;
-import java.util.List;
 
 public class Input {
 
@@ -42,16 +39,18 @@ public class Input {
     this.input = input;
     this.uri = uri;
 
-    List<Integer> newLineIndexesBuilder = Lists.newArrayList();
+    int[] newLineIndexesBuilder = new int[16];
+    int count = 0;
     for (int i = 0; i < input.length; i++) {
       if (isNewLine(input, i)) {
-        newLineIndexesBuilder.add(i + 1);
+        if (count == newLineIndexesBuilder.length) {
+          newLineIndexesBuilder = Arrays.copyOf(newLineIndexesBuilder, count * 2);
+        }
+        newLineIndexesBuilder[count] = i + 1;
+        count++;
       }
     }
-    this.newLineIndexes = new int[newLineIndexesBuilder.size()];
-    for (int i = 0; i < newLineIndexes.length; i++) {
-      this.newLineIndexes[i] = newLineIndexesBuilder.get(i);
-    }
+    this.newLineIndexes = Arrays.copyOf(newLineIndexesBuilder, count);
   }
 
   public char[] input() {
@@ -63,11 +62,7 @@ public class Input {
   }
 
   public String substring(int from, int to) {
-    StringBuilder sb = new StringBuilder();
-    for (int i = from; i < to; i++) {
-      sb.append(input[i]);
-    }
-    return sb.toString();
+    return new String(input, from, to - from);
   }
 
   public int[] lineAndColumnAt(int index) {
@@ -24,10 +24,13 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.GenericTokenType;
+import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.TokenType;
 import com.sonar.sslr.api.Trivia;
 import com.sonar.sslr.api.Trivia.TriviaKind;
+import org.sonar.java.NameTable;
+import org.sonar.java.ast.parser.ParseBudget;
 import org.sonar.java.parser.sslr.ActionParser2.GrammarBuilderInterceptor;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.internal.grammar.MutableParsingRule;
@@ -35,9 +38,12 @@ import org.sonar.sslr.internal.matchers.ParseNode;
 import org.sonar.sslr.internal.vm.TokenExpression;
 import org.sonar.sslr.internal.vm.TriviaExpression;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 
 public class SyntaxTreeCreator<T> {
@@ -73,6 +79,7 @@ public class SyntaxTreeCreator<T> {
   private final List<Trivia> trivias = Lists.newArrayList();
 
   private Input input;
+  private ParseBudget budget;
 
   public SyntaxTreeCreator(Object treeFactory, GrammarBuilderInterceptor mapping) {
     this.treeFactory = treeFactory;
@@ -85,22 +92,65 @@ public class SyntaxTreeCreator<T> {
     return (T) visit(node);
   }
 
-  private Object visit(ParseNode node) {
-    if (node.getMatcher() instanceof MutableParsingRule) {
-      return visitNonTerminal(node);
-    } else {
-      return visitTerminal(node);
+  /**
+   * @param budget limits time of the creation of each tree, null for no limit
+   */
+  public void setBudget(@Nullable ParseBudget budget) {
+    this.budget = budget;
+  }
+
+  /**
+   * Tree is traversed without recursion, so that deeply nested sources (generated code for instance)
+   * can not lead to a {@link StackOverflowError}.
+   */
+  private Object visit(ParseNode root) {
+    if (!(root.getMatcher() instanceof MutableParsingRule)) {
+      return visitTerminal(root);
+    }
+
+    Deque<NonTerminal> stack = new ArrayDeque<NonTerminal>();
+    stack.push(new NonTerminal(root));
+    while (true) {
+      NonTerminal nonTerminal = stack.peek();
+      if (nonTerminal.hasNextChild()) {
+        ParseNode child = nonTerminal.nextChild();
+        if (child.getMatcher() instanceof MutableParsingRule) {
+          checkBudget(child);
+          stack.push(new NonTerminal(child));
+        } else {
+          nonTerminal.addConvertedChild(visitTerminal(child));
+        }
+      } else {
+        stack.pop();
+        Object result = visitNonTerminal(nonTerminal.node, nonTerminal.convertedChildren);
+        if (stack.isEmpty()) {
+          return result;
+        }
+        stack.peek().addConvertedChild(result);
+      }
     }
   }
 
-  private Object visitNonTerminal(ParseNode node) {
+  /**
+   * Only time is checked: nesting depth is the one of the syntax tree, which is checked by the sanitizer.
+   */
+  private void checkBudget(ParseNode node) {
+    if (budget != null) {
+      String exceeded = budget.onNode();
+      if (exceeded != null) {
+        throw new RecognitionException(input.lineAndColumnAt(node.getStartIndex())[0], exceeded);
+      }
+    }
+  }
+
+  private Object visitNonTerminal(ParseNode node, List<Object> convertedChildren) {
     MutableParsingRule rule = (MutableParsingRule) node.getMatcher();
     GrammarRuleKey ruleKey = rule.getRuleKey();
 
     if (mapping.hasMethodForRuleKey(ruleKey)) {
       // TODO Drop useless intermediate nodes
       Preconditions.checkState(node.getChildren().size() == 1);
-      return visit(node.getChildren().get(0));
+      return convertedChildren.isEmpty() ? null : convertedChildren.get(0);
     }
 
     if (mapping.isOptionalRule(ruleKey)) {
@@ -108,25 +158,16 @@ public class SyntaxTreeCreator<T> {
       if (node.getChildren().isEmpty()) {
         return Optional.absent();
       } else {
-        return Optional.of(visit(node.getChildren().get(0)));
-      }
-    }
-
-    List<ParseNode> children = node.getChildren();
-    List<Object> convertedChildren = Lists.newArrayList();
-    for (ParseNode child : children) {
-      Object result = visit(child);
-      if (result != null) {
-        convertedChildren.add(result);
+        return Optional.of(convertedChildren.get(0));
       }
     }
 
     if (mapping.isOneOrMoreRule(ruleKey)) {
-      return Lists.newArrayList(convertedChildren);
+      return convertedChildren;
     }
 
     if (mapping.isZeroOrMoreRule(ruleKey)) {
-      return convertedChildren.isEmpty() ? Optional.absent() : Optional.of(Lists.newArrayList(convertedChildren));
+      return convertedChildren.isEmpty() ? Optional.absent() : Optional.of(convertedChildren);
     }
 
     Method method = mapping.actionForRuleKey(ruleKey);
@@ -203,7 +244,41 @@ public class SyntaxTreeCreator<T> {
     tokenBuilder.setColumn(lineAndColumn[1] - 1);
     tokenBuilder.setURI(input.uri());
     String value = input.substring(node.getStartIndex(), node.getEndIndex());
+    if (NameTable.isName(value)) {
+      value = NameTable.intern(value);
+    }
     tokenBuilder.setValueAndOriginalValue(value);
   }
 
+  private static class NonTerminal {
+
+    private final ParseNode node;
+    private final List<ParseNode> children;
+    private final List<Object> convertedChildren;
+    private int nextChildIndex = 0;
+
+    NonTerminal(ParseNode node) {
+      this.node = node;
+      this.children = node.getChildren();
+      this.convertedChildren = Lists.newArrayListWithCapacity(children.size());
+    }
+
+    boolean hasNextChild() {
+      return nextChildIndex < children.size();
+    }
+
+    ParseNode nextChild() {
+      ParseNode child = children.get(nextChildIndex);
+      nextChildIndex++;
+      return child;
+    }
+
+    void addConvertedChild(@Nullable Object convertedChild) {
+      if (convertedChild != null) {
+        convertedChildren.add(convertedChild);
+      }
+    }
+
+  }
+
 }
@@ -28,8 +28,11 @@ import org.apache.commons.lang.StringUtils;
 import org.objectweb.asm.ClassReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.java.NameTable;
 import org.sonar.java.bytecode.ClassLoaderBuilder;
+import org.sonar.java.bytecode.loader.ClassFilesIndex;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -49,6 +52,7 @@ public class BytecodeCompleter implements Symbol.Completer {
 
   private Symbols symbols;
   private final List<File> projectClasspath;
+  private final ClassFilesIndex classFilesIndex;
 
   /**
    * Indexed by flat name.
@@ -56,10 +60,27 @@ public class BytecodeCompleter implements Symbol.Completer {
   private final Map<String, Symbol.TypeSymbol> classes = new HashMap<String, Symbol.TypeSymbol>();
   private final Map<String, Symbol.PackageSymbol> packages = new HashMap<String, Symbol.PackageSymbol>();
 
+  private final Symbol.Completer membersCompleter = new Symbol.Completer() {
+    @Override
+    public void complete(Symbol symbol) {
+      completeMembers((Symbol.TypeSymbol) symbol);
+    }
+  };
+
   private ClassLoader classLoader;
+  private int completedClasses;
+  private int completedMembers;
 
   public BytecodeCompleter(List<File> projectClasspath) {
+    this(projectClasspath, null);
+  }
+
+  /**
+   * @param classFilesIndex index of the class files of the project classpath, shared between files of the project, null to not use any
+   */
+  public BytecodeCompleter(List<File> projectClasspath, @Nullable ClassFilesIndex classFilesIndex) {
     this.projectClasspath = projectClasspath;
+    this.classFilesIndex = classFilesIndex;
   }
 
   public void init(Symbols symbols) {
@@ -84,19 +105,33 @@ public class BytecodeCompleter implements Symbol.Completer {
     Symbol.TypeSymbol classSymbol = getClassSymbol(bytecodeName);
     Preconditions.checkState(classSymbol == symbol);
 
+    ClassReader classReader = classReaderFor(bytecodeName);
+    completedClasses++;
+    classReader.accept(new BytecodeVisitor(this, symbols, classSymbol, false), ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+    classSymbol.membersCompleter = membersCompleter;
+  }
+
+  /**
+   * Second tier of completion: class file is read again to enter fields and methods,
+   * which happens only when {@link Symbol.TypeSymbol#members()} is requested.
+   */
+  private void completeMembers(Symbol.TypeSymbol classSymbol) {
+    LOG.debug("Completing members of symbol : " + classSymbol.name);
+    ClassReader classReader = classReaderFor(formFullName(classSymbol));
+    completedMembers++;
+    classReader.accept(new BytecodeVisitor(this, symbols, classSymbol, true), ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+  }
+
+  private ClassReader classReaderFor(String bytecodeName) {
     InputStream inputStream = null;
-    ClassReader classReader = null;
     try {
       inputStream = inputStreamFor(bytecodeName);
-      classReader = new ClassReader(inputStream);
+      return new ClassReader(inputStream);
     } catch (IOException e) {
       throw Throwables.propagate(e);
     } finally {
       Closeables.closeQuietly(inputStream);
     }
-    if (classReader != null) {
-      classReader.accept(new BytecodeVisitor(this, symbols, (Symbol.TypeSymbol) symbol), ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
-    }
   }
 
   private InputStream inputStreamFor(String fullname) {
@@ -105,7 +140,7 @@ public class BytecodeCompleter implements Symbol.Completer {
 
   private ClassLoader getClassLoader() {
     if (classLoader == null) {
-      classLoader = ClassLoaderBuilder.create(projectClasspath);
+      classLoader = ClassLoaderBuilder.create(projectClasspath, classFilesIndex);
     }
     return classLoader;
   }
@@ -144,9 +179,9 @@ public class BytecodeCompleter implements Symbol.Completer {
       String enclosingClassName = Convert.enclosingClassName(shortName);
       if (StringUtils.isNotEmpty(enclosingClassName)) {
         //handle innerClasses
-        symbol = new Symbol.TypeSymbol(filterBytecodeFlags(flags), Convert.innerClassName(shortName), getClassSymbol(Convert.fullName(packageName, enclosingClassName)));
+        symbol = new Symbol.TypeSymbol(filterBytecodeFlags(flags), NameTable.intern(Convert.innerClassName(shortName)), getClassSymbol(Convert.fullName(packageName, enclosingClassName)));
       } else {
-        symbol = new Symbol.TypeSymbol(filterBytecodeFlags(flags), shortName, enterPackage(packageName));
+        symbol = new Symbol.TypeSymbol(filterBytecodeFlags(flags), NameTable.intern(shortName), enterPackage(packageName));
       }
       symbol.members = new Scope(symbol);
 
@@ -217,6 +252,17 @@ public class BytecodeCompleter implements Symbol.Completer {
     return result;
   }
 
+  public int getCompletedClasses() {
+    return completedClasses;
+  }
+
+  /**
+   * @return number of classes, for which fields and methods were loaded
+   */
+  public int getCompletedMembers() {
+    return completedMembers;
+  }
+
   public void done() {
     if (classLoader != null && classLoader instanceof Closeable) {
       Closeables.closeQuietly((Closeable) classLoader);
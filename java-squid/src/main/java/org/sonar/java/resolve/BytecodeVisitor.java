@@ -21,6 +21,7 @@ package org.sonar.java.resolve;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import org.sonar.java.NameTable;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.Attribute;
 import org.objectweb.asm.ClassVisitor;
@@ -40,16 +41,23 @@ public class BytecodeVisitor extends ClassVisitor {
   private final Symbols symbols;
   private final Symbol.TypeSymbol classSymbol;
 
+  /**
+   * When false, only header of class is read: flags, supertypes, annotations and inner classes.
+   * When true, only fields and methods are read and entered into members of already completed class.
+   */
+  private final boolean readMembers;
+
   /**
    * Name of current class in a format as it appears in bytecode, i.e. "org/example/MyClass$InnerClass".
    */
   private String className;
 
-  BytecodeVisitor(BytecodeCompleter bytecodeCompleter, Symbols symbols, Symbol.TypeSymbol classSymbol) {
+  BytecodeVisitor(BytecodeCompleter bytecodeCompleter, Symbols symbols, Symbol.TypeSymbol classSymbol, boolean readMembers) {
     super(Opcodes.ASM5);
     this.bytecodeCompleter = bytecodeCompleter;
     this.symbols = symbols;
     this.classSymbol = classSymbol;
+    this.readMembers = readMembers;
   }
 
   private Symbol.TypeSymbol getClassSymbol(String bytecodeName) {
@@ -65,6 +73,9 @@ public class BytecodeVisitor extends ClassVisitor {
     Preconditions.checkState(name.endsWith(classSymbol.name), "Name : '" + name + "' should ends with " + classSymbol.name);
     Preconditions.checkState(!BytecodeCompleter.isSynthetic(flags), name + " is synthetic");
     className = name;
+    if (readMembers) {
+      return;
+    }
     if(signature != null) {
       new SignatureReader(signature).accept(new SignatureVisitor(Opcodes.ASM5) {
 
@@ -112,6 +123,9 @@ public class BytecodeVisitor extends ClassVisitor {
 
   @Override
   public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+    if (readMembers) {
+      return null;
+    }
     Type annotationType = convertAsmType(org.objectweb.asm.Type.getType(desc));
     AnnotationInstance annotationInstance = new AnnotationInstance(annotationType.getSymbol());
     classSymbol.metadata().addAnnotation(annotationInstance);
@@ -131,7 +145,7 @@ public class BytecodeVisitor extends ClassVisitor {
 
   @Override
   public void visitInnerClass(String name, @Nullable String outerName, @Nullable String innerName, int flags) {
-    if (!BytecodeCompleter.isSynthetic(flags)) {
+    if (!readMembers && !BytecodeCompleter.isSynthetic(flags)) {
       // TODO what about flags?
       if (innerName == null) {
         // anonymous class
@@ -169,7 +183,7 @@ public class BytecodeVisitor extends ClassVisitor {
   private void defineOuterClass(String outerName, String innerName, int flags) {
     Symbol.TypeSymbol outerClassSymbol = getClassSymbol(outerName, flags);
     Preconditions.checkState(outerClassSymbol.completer == null || outerClassSymbol.completer instanceof BytecodeCompleter);
-    classSymbol.name = innerName;
+    classSymbol.name = NameTable.intern(innerName);
     classSymbol.owner = outerClassSymbol;
   }
 
@@ -177,10 +191,10 @@ public class BytecodeVisitor extends ClassVisitor {
   public FieldVisitor visitField(int flags, String name, String desc, @Nullable String signature, @Nullable Object value) {
     Preconditions.checkNotNull(name);
     Preconditions.checkNotNull(desc);
-    if (!BytecodeCompleter.isSynthetic(flags)) {
+    if (readMembers && !BytecodeCompleter.isSynthetic(flags)) {
       //Flags from asm lib are defined in Opcodes class and map to flags defined in Flags class
       final Symbol.VariableSymbol symbol = new Symbol.VariableSymbol(bytecodeCompleter.filterBytecodeFlags(flags),
-          name, convertAsmType(org.objectweb.asm.Type.getType(desc)), classSymbol);
+          NameTable.intern(name), convertAsmType(org.objectweb.asm.Type.getType(desc)), classSymbol);
       classSymbol.members.enter(symbol);
       if(signature != null) {
         new SignatureReader(signature).accept(new SignatureVisitor(Opcodes.ASM5) {
@@ -201,7 +215,7 @@ public class BytecodeVisitor extends ClassVisitor {
   public MethodVisitor visitMethod(int flags, String name, String desc, @Nullable String signature, @Nullable String[] exceptions) {
     Preconditions.checkNotNull(name);
     Preconditions.checkNotNull(desc);
-    if (!BytecodeCompleter.isSynthetic(flags)) {
+    if (readMembers && !BytecodeCompleter.isSynthetic(flags)) {
       Preconditions.checkState((flags & Opcodes.ACC_BRIDGE) == 0, "bridge method not marked as synthetic in class " + className);
       // TODO(Godin): according to JVMS 4.7.24 - parameter can be marked as synthetic
       Type.MethodType type = new Type.MethodType(
@@ -210,7 +224,7 @@ public class BytecodeVisitor extends ClassVisitor {
           getCompletedClassSymbolsType(exceptions),
           classSymbol
       );
-      final Symbol.MethodSymbol methodSymbol = new Symbol.MethodSymbol(bytecodeCompleter.filterBytecodeFlags(flags), name, type, classSymbol);
+      final Symbol.MethodSymbol methodSymbol = new Symbol.MethodSymbol(bytecodeCompleter.filterBytecodeFlags(flags), NameTable.intern(name), type, classSymbol);
       classSymbol.members.enter(methodSymbol);
       if(signature != null) {
         new SignatureReader(signature).accept(new SignatureVisitor(Opcodes.ASM5) {
@@ -284,9 +298,9 @@ public class BytecodeVisitor extends ClassVisitor {
    */
   @Override
   public void visitEnd() {
-    if (classSymbol.owner == null) {
+    if (!readMembers && classSymbol.owner == null) {
       String flatName = className.replace('/', '.');
-      classSymbol.name = flatName.substring(flatName.lastIndexOf('.') + 1);
+      classSymbol.name = NameTable.intern(flatName.substring(flatName.lastIndexOf('.') + 1));
       classSymbol.owner = bytecodeCompleter.enterPackage(flatName);
       Symbol.PackageSymbol owner = (Symbol.PackageSymbol) classSymbol.owner;
       if (owner.members == null) {
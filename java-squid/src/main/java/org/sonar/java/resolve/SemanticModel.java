@@ -27,6 +27,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import org.sonar.java.bytecode.loader.ClassFilesIndex;
 import org.sonar.java.model.AbstractTypedTree;
 import org.sonar.java.model.JavaTree;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
@@ -54,7 +55,14 @@ public class SemanticModel {
   private BytecodeCompleter bytecodeCompleter;
 
   public static SemanticModel createFor(CompilationUnitTree tree, List<File> projectClasspath) {
-    BytecodeCompleter bytecodeCompleter = new BytecodeCompleter(projectClasspath);
+    return createFor(tree, projectClasspath, null);
+  }
+
+  /**
+   * @param classFilesIndex index of the class files of the project classpath, null to not use any
+   */
+  public static SemanticModel createFor(CompilationUnitTree tree, List<File> projectClasspath, @Nullable ClassFilesIndex classFilesIndex) {
+    BytecodeCompleter bytecodeCompleter = new BytecodeCompleter(projectClasspath, classFilesIndex);
     Symbols symbols = new Symbols(bytecodeCompleter);
     SemanticModel semanticModel = new SemanticModel();
     semanticModel.bytecodeCompleter = bytecodeCompleter;
@@ -71,6 +79,13 @@ public class SemanticModel {
     return semanticModel;
   }
 
+  /**
+   * @return number of classes completed from bytecode while building this model and executing checks
+   */
+  public int getCompletedClasses() {
+    return bytecodeCompleter.getCompletedClasses();
+  }
+
   public void done(){
     bytecodeCompleter.done();
   }
@@ -165,6 +165,11 @@ public class Symbol {
 
     Scope members;
 
+    /**
+     * Enters fields and methods into {@link #members}, when those are not yet known after {@link #complete()}.
+     */
+    Completer membersCompleter;
+
     public TypeSymbol(int flags, String name, Symbol owner) {
       super(TYP, flags, name, owner);
       this.type = new Type.ClassType(this);
@@ -182,9 +187,18 @@ public class Symbol {
 
     public Scope members() {
       complete();
+      completeMembers();
       return members;
     }
 
+    private void completeMembers() {
+      if (membersCompleter != null) {
+        Completer c = membersCompleter;
+        membersCompleter = null;
+        c.complete(this);
+      }
+    }
+
     public String getFullyQualifiedName() {
       String ownerName = "";
       if(!owner.name.isEmpty()) {
@@ -0,0 +1,109 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class AnalysisMetricsTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void should_accumulate_times_and_counters() {
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    metrics.addTime(AnalysisMetrics.PARSE, 10);
+    metrics.addTime(AnalysisMetrics.PARSE, 5);
+    metrics.increment(AnalysisMetrics.FILES, 1);
+    metrics.increment(AnalysisMetrics.FILES, 2);
+    metrics.addParseError(new File("A.java"));
+
+    assertThat(metrics.getTime(AnalysisMetrics.PARSE)).isEqualTo(15);
+    assertThat(metrics.getTime(AnalysisMetrics.DESIGN)).isEqualTo(0);
+    assertThat(metrics.getCounter(AnalysisMetrics.FILES)).isEqualTo(3);
+    assertThat(metrics.getCounter(AnalysisMetrics.PARSE_ERRORS)).isEqualTo(1);
+    assertThat(metrics.getFilesWithParseErrors()).containsOnly("A.java");
+    assertThat(metrics.getTimes()).hasSize(1);
+  }
+
+  @Test
+  public void should_accumulate_times_of_file_being_analyzed() {
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    metrics.addTime(AnalysisMetrics.PARSE, 10);
+    metrics.startFile();
+    metrics.addTime(AnalysisMetrics.PARSE, 5);
+    metrics.addTime(AnalysisMetrics.CHECKS, 2);
+    metrics.addTime(AnalysisMetrics.PARSE, 1);
+
+    assertThat(metrics.stopFile()).isEqualTo(ImmutableMap.of(AnalysisMetrics.PARSE, 6L, AnalysisMetrics.CHECKS, 2L));
+    metrics.addTime(AnalysisMetrics.PARSE, 3);
+    assertThat(metrics.stopFile()).isEmpty();
+    assertThat(metrics.getTime(AnalysisMetrics.PARSE)).isEqualTo(19);
+  }
+
+  @Test
+  public void should_write_report() throws Exception {
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    metrics.addTime(AnalysisMetrics.PARSE, 10);
+    metrics.addTime(AnalysisMetrics.CHECKS, 20);
+    metrics.increment(AnalysisMetrics.FILES, 2);
+    metrics.addParseError(new File("dir\\A\"B.java"));
+    SlowestFiles slowestFiles = new SlowestFiles(1);
+    slowestFiles.add("A.java", 30, ImmutableMap.of(AnalysisMetrics.PARSE, 10L));
+    metrics.addSlowestFiles(slowestFiles.get());
+    metrics.writeReport(null);
+    metrics.writeReport(temp.getRoot());
+
+    assertThat(Files.toString(new File(temp.getRoot(), AnalysisMetrics.REPORT_FILE_NAME), Charsets.UTF_8)).isEqualTo("{\n"
+      + "  \"times\":{\"parse\":10,\"checks\":20},\n"
+      + "  \"counters\":{\"files\":2,\"parseErrors\":1},\n"
+      + "  \"filesWithParseErrors\":[\"dir\\\\A\\\"B.java\"],\n"
+      + "  \"slowestFiles\":[\n"
+      + "    {\"file\":\"A.java\",\"time\":30,\"phases\":{\"parse\":10}}]\n"
+      + "}\n");
+  }
+
+  @Test
+  public void should_be_exposed_through_jmx_while_started() throws Exception {
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    metrics.increment(AnalysisMetrics.FILES, 1);
+    ObjectName name = new ObjectName(AnalysisMetrics.OBJECT_NAME);
+
+    metrics.start();
+    try {
+      assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Counters")).isEqualTo(metrics.getCounters());
+    } finally {
+      metrics.stop();
+    }
+    assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isFalse();
+  }
+
+}
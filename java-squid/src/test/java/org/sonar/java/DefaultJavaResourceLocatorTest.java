@@ -90,6 +90,16 @@ public class DefaultJavaResourceLocatorTest {
     assertThat(javaResourceLocator.classFilesToAnalyze()).hasSize(5);
   }
 
+  @Test
+  public void method_start_lines() throws Exception {
+    Integer fooLine = javaResourceLocator.getMethodStartLine("org/sonar/java/DefaultJavaResourceLocatorTest$A$I#foo()V");
+    Integer methodLine = javaResourceLocator.getMethodStartLine("org/sonar/java/DefaultJavaResourceLocatorTest$A#method()V");
+    assertThat(fooLine).isNotNull();
+    assertThat(methodLine).isGreaterThan(fooLine);
+    assertThat(javaResourceLocator.getMethodStartLine("org/sonar/java/DefaultJavaResourceLocatorTest$A#unknown()V")).isNull();
+    assertThat(javaResourceLocator.getMethodStartLine("org/sonar/java/Unknown#method()V")).isNull();
+  }
+
   static class A { //NOSONAR
 
     interface I {
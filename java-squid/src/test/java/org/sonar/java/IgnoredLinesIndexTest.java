@@ -0,0 +1,123 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class IgnoredLinesIndexTest {
+
+  @Test
+  public void lines_are_ignored_within_ranges_of_rule() {
+    IgnoredLinesIndex index = new IgnoredLinesIndex();
+    index.add("squid:S1", 10, 20);
+    index.add("squid:S1", 30, 40);
+    index.add("squid:S2", 15, 15);
+
+    assertThat(index.isIgnored("squid:S1", 9)).isFalse();
+    assertThat(index.isIgnored("squid:S1", 10)).isTrue();
+    assertThat(index.isIgnored("squid:S1", 20)).isTrue();
+    assertThat(index.isIgnored("squid:S1", 25)).isFalse();
+    assertThat(index.isIgnored("squid:S1", 35)).isTrue();
+    assertThat(index.isIgnored("squid:S1", 41)).isFalse();
+    assertThat(index.isIgnored("squid:S2", 15)).isTrue();
+    assertThat(index.isIgnored("squid:S2", 16)).isFalse();
+    assertThat(index.isIgnored("squid:S3", 15)).isFalse();
+  }
+
+  @Test
+  public void nested_and_unordered_ranges_are_merged() {
+    IgnoredLinesIndex index = new IgnoredLinesIndex();
+    index.add("squid:S1", 1, 100);
+    index.add("squid:S1", 10, 20);
+    index.add("squid:S1", 200, 210);
+    index.add("squid:S1", 150, 160);
+    index.add("squid:S1", 101, 110);
+
+    assertThat(index.isIgnored("squid:S1", 50)).isTrue();
+    assertThat(index.isIgnored("squid:S1", 105)).isTrue();
+    assertThat(index.isIgnored("squid:S1", 120)).isFalse();
+    assertThat(index.isIgnored("squid:S1", 155)).isTrue();
+    assertThat(index.isIgnored("squid:S1", 170)).isFalse();
+    assertThat(index.isIgnored("squid:S1", 205)).isTrue();
+    assertThat(index.isIgnored("squid:S1", 211)).isFalse();
+  }
+
+  @Test
+  public void adjacent_and_bridging_ranges_are_merged() {
+    IgnoredLinesIndex index = new IgnoredLinesIndex();
+    index.add("squid:S1", 10, 12);
+    index.add("squid:S1", 20, 22);
+    index.add("squid:S1", 30, 32);
+    index.add("squid:S1", 13, 14);
+    index.add("squid:S1", 15, 29);
+    index.add("squid:S1", 40, 41);
+
+    assertThat(index.toMultimap().get("squid:S1")).containsOnly(
+      10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 40, 41);
+  }
+
+  @Test
+  public void lines_are_expanded_by_rule() {
+    IgnoredLinesIndex index = new IgnoredLinesIndex();
+    index.add("squid:S1", 1, 2);
+    index.add("squid:S2", 5, 5);
+
+    assertThat(index.toMultimap().get("squid:S1")).containsOnly(1, 2);
+    assertThat(index.toMultimap().get("squid:S2")).containsOnly(5);
+    assertThat(index.toMultimap().size()).isEqualTo(3);
+  }
+
+  @Test
+  public void empty_index() {
+    IgnoredLinesIndex index = new IgnoredLinesIndex();
+    assertThat(index.isEmpty()).isTrue();
+    assertThat(index.isIgnored("squid:S1", 1)).isFalse();
+    index.add("squid:S1", 1, 1);
+    assertThat(index.isEmpty()).isFalse();
+  }
+
+  @Test
+  public void lines_ignored_for_all_rules() {
+    IgnoredLinesIndex index = new IgnoredLinesIndex();
+    assertThat(index.hasLinesIgnoredForAllRules()).isFalse();
+    index.addForAllRules(10, 12);
+    index.addForAllRules(11, 13);
+    index.add("squid:S1", 20, 20);
+
+    assertThat(index.isEmpty()).isFalse();
+    assertThat(index.hasLinesIgnoredForAllRules()).isTrue();
+    assertThat(index.isIgnoredForAllRules(10)).isTrue();
+    assertThat(index.isIgnoredForAllRules(14)).isFalse();
+    assertThat(index.isIgnoredForAllRules(20)).isFalse();
+    assertThat(index.isIgnored("squid:S2", 13)).isTrue();
+    assertThat(index.isIgnored("squid:S2", 20)).isFalse();
+    assertThat(index.toMultimap().keySet()).containsOnly("squid:S1");
+
+    List<Integer> lines = Lists.newArrayList();
+    index.addLinesIgnoredForAllRules(lines);
+    assertThat(lines).containsOnly(10, 11, 12, 13);
+  }
+
+}
@@ -23,7 +23,9 @@ import com.google.common.collect.Lists;
 import org.apache.maven.model.Build;
 import org.apache.maven.project.MavenProject;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
@@ -37,6 +39,9 @@ import static org.mockito.Mockito.when;
 
 public class JavaClasspathTest {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   private Project project;
   private DefaultFileSystem fs;
   private Settings settings;
@@ -236,6 +241,50 @@ public class JavaClasspathTest {
 
   }
 
+  @Test
+  public void directories_should_be_listed_once_for_all_modules() throws Exception {
+    File baseDir = temp.newFolder();
+    File lib = new File(baseDir, "lib");
+    lib.mkdir();
+    new File(lib, "a.jar").createNewFile();
+    fs.setBaseDir(baseDir);
+    settings.setProperty(JavaClasspathProperties.SONAR_JAVA_LIBRARIES, "lib/*.jar");
+    ClasspathDirectoryCache directoryCache = new ClasspathDirectoryCache();
+    assertThat(new JavaClasspath(project, settings, fs, directoryCache).getElements()).containsOnly(new File(lib, "a.jar"));
+
+    new File(lib, "b.jar").createNewFile();
+    assertThat(new JavaClasspath(project, settings, fs, directoryCache).getElements()).containsOnly(new File(lib, "a.jar"));
+    assertThat(new JavaClasspath(project, settings, fs, new ClasspathDirectoryCache()).getElements()).hasSize(2);
+  }
+
+  @Test
+  public void directory_with_trailing_separator_should_not_be_listed() throws Exception {
+    settings.setProperty(JavaClasspathProperties.SONAR_JAVA_BINARIES, "bin/");
+    ClasspathDirectoryCache directoryCache = new ClasspathDirectoryCache();
+    javaClasspath = new JavaClasspath(project, settings, fs, directoryCache);
+
+    assertThat(javaClasspath.getBinaryDirs()).hasSize(1);
+    assertThat(javaClasspath.getBinaryDirs()).onProperty("name").containsOnly("bin");
+    assertThat(directoryCache.get(javaClasspath.getBinaryDirs().get(0), "", false)).isNull();
+  }
+
+  @Test
+  public void directories_should_be_cached_by_pattern() throws Exception {
+    File baseDir = temp.newFolder();
+    File lib = new File(baseDir, "lib");
+    lib.mkdir();
+    new File(lib, "a.jar").createNewFile();
+    new File(lib, "b.zip").createNewFile();
+    fs.setBaseDir(baseDir);
+    ClasspathDirectoryCache directoryCache = new ClasspathDirectoryCache();
+    settings.setProperty(JavaClasspathProperties.SONAR_JAVA_LIBRARIES, "lib/*.jar");
+    assertThat(new JavaClasspath(project, settings, fs, directoryCache).getElements()).containsOnly(new File(lib, "a.jar"));
+
+    settings.setProperty(JavaClasspathProperties.SONAR_JAVA_LIBRARIES, "lib/*.zip");
+    assertThat(new JavaClasspath(project, settings, fs, directoryCache).getElements()).containsOnly(new File(lib, "b.zip"));
+    assertThat(directoryCache.get(lib, "*.jar", true)).containsOnly(new File(lib, "a.jar"));
+  }
+
   private void checkIllegalStateException(String message) {
     try {
       javaClasspath = createJavaClasspath();
@@ -53,13 +53,17 @@ public class JavaFilesCacheTest {
     assertThat(javaFilesCache.methodStartLines.keySet()).contains("org/sonar/java/JavaFilesCacheTest#method_start_lines_mapping()V");
     assertThat(javaFilesCache.methodStartLines.keySet()).contains("org/sonar/java/JavaFilesCacheTest$A#method()V");
     assertThat(javaFilesCache.methodStartLines.keySet()).contains("org/sonar/java/JavaFilesCacheTest#resource_file_mapping()V");
-    assertThat(javaFilesCache.ignoredLines).hasSize(13);
-    assertThat(javaFilesCache.ignoredLines).contains(67);
-    assertThat(javaFilesCache.ignoredLines).contains(68);
-    assertThat(javaFilesCache.ignoredLines).contains(71);
-    assertThat(javaFilesCache.ignoredLines).contains(81);
-    assertThat(javaFilesCache.ignoredLinesForRules.get("foo")).hasSize(5).contains(75,76,77,78,79);
-    assertThat(javaFilesCache.ignoredLinesForRules.get("bar")).hasSize(5).contains(75,76,77,78,79);
+    assertThat(javaFilesCache.ignoredLinesForRules.isIgnoredForAllRules(71)).isTrue();
+    assertThat(javaFilesCache.ignoredLinesForRules.isIgnoredForAllRules(72)).isTrue();
+    assertThat(javaFilesCache.ignoredLinesForRules.isIgnoredForAllRules(74)).isFalse();
+    assertThat(javaFilesCache.ignoredLinesForRules.isIgnoredForAllRules(75)).isTrue();
+    assertThat(javaFilesCache.ignoredLinesForRules.isIgnored("foo", 85)).isTrue();
+    for (int line = 79; line <= 83; line++) {
+      assertThat(javaFilesCache.ignoredLinesForRules.isIgnored("foo", line)).isTrue();
+      assertThat(javaFilesCache.ignoredLinesForRules.isIgnored("bar", line)).isTrue();
+    }
+    assertThat(javaFilesCache.ignoredLinesForRules.isIgnored("foo", 78)).isFalse();
+    assertThat(javaFilesCache.ignoredLinesForRules.isIgnored("foo", 84)).isFalse();
   }
 
   static class A {
@@ -0,0 +1,68 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class MethodStartLinesTest {
+
+  @Test
+  public void lines_are_found_by_class_and_signature() {
+    MethodStartLines methodStartLines = new MethodStartLines();
+    methodStartLines.put("org/example/A#foo()V", 3);
+    methodStartLines.put("org/example/A#bar(I)V", 7);
+    methodStartLines.put("org/example/A$Inner#foo()V", 12);
+    methodStartLines.putAll(ImmutableMap.of("org/example/B#foo()V", 5));
+
+    assertThat(methodStartLines.get("org/example/A#foo()V")).isEqualTo(3);
+    assertThat(methodStartLines.get("org/example/A#bar(I)V")).isEqualTo(7);
+    assertThat(methodStartLines.get("org/example/A$Inner#foo()V")).isEqualTo(12);
+    assertThat(methodStartLines.get("org/example/B#foo()V")).isEqualTo(5);
+
+    assertThat(methodStartLines.get("org/example/A#baz()V")).isNull();
+    assertThat(methodStartLines.get("org/example/C#foo()V")).isNull();
+    assertThat(methodStartLines.get("org/example/A")).isNull();
+  }
+
+  @Test
+  public void name_without_separator_is_ignored() {
+    MethodStartLines methodStartLines = new MethodStartLines();
+    methodStartLines.put("org/example/A", 3);
+
+    assertThat(methodStartLines.get("org/example/A")).isNull();
+    assertThat(methodStartLines.get("org/example/A#")).isNull();
+  }
+
+  @Test
+  public void many_methods_in_any_order() {
+    MethodStartLines methodStartLines = new MethodStartLines();
+    for (int i = 100; i > 0; i--) {
+      methodStartLines.put("A#m" + i + "()V", i);
+    }
+    methodStartLines.put("A#m50()V", 500);
+    for (int i = 1; i <= 100; i++) {
+      assertThat(methodStartLines.get("A#m" + i + "()V")).isEqualTo(i == 50 ? 500 : i);
+    }
+  }
+
+}
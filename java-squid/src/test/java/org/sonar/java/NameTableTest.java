@@ -0,0 +1,86 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.impl.Parser;
+import org.junit.Test;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.resolve.BytecodeCompleter;
+import org.sonar.java.resolve.Symbol;
+import org.sonar.java.resolve.Symbols;
+
+import java.io.File;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class NameTableTest {
+
+  @Test
+  public void equal_names_are_interned_to_same_instance() {
+    String name = NameTable.intern(new String("get"));
+    assertThat(NameTable.intern(new String("get"))).isSameAs(name);
+    assertThat(NameTable.intern(null)).isNull();
+  }
+
+  @Test
+  public void names_are_identifiers_and_keywords() {
+    assertThat(NameTable.isName("foo")).isTrue();
+    assertThat(NameTable.isName("$foo")).isTrue();
+    assertThat(NameTable.isName("class")).isTrue();
+    assertThat(NameTable.isName("")).isFalse();
+    assertThat(NameTable.isName("\"foo\"")).isFalse();
+    assertThat(NameTable.isName("42")).isFalse();
+    assertThat(NameTable.isName("// foo")).isFalse();
+    assertThat(NameTable.isName("{")).isFalse();
+  }
+
+  @Test
+  public void identifiers_of_different_files_are_shared() {
+    Parser parser = JavaParser.createParser(Charsets.UTF_8);
+    Token first = token(parser.parse("class A { int value; String literal = \"value\"; }"), "value");
+    Token second = token(parser.parse("class B { long value; }"), "value");
+    assertThat(second.getValue()).isSameAs(first.getValue());
+    assertThat(token(parser.parse("class C { String literal = \"value\"; }"), "\"value\"").getValue()).isNotSameAs(token(parser.parse("class D { String literal = \"value\"; }"), "\"value\"").getValue());
+  }
+
+  @Test
+  public void names_of_members_read_from_bytecode_are_shared() {
+    BytecodeCompleter bytecodeCompleter = new BytecodeCompleter(Lists.newArrayList(new File("target/classes")));
+    new Symbols(bytecodeCompleter);
+    Symbol.TypeSymbol arrayList = (Symbol.TypeSymbol) bytecodeCompleter.loadClass("java.util.ArrayList");
+    Symbol.TypeSymbol linkedList = (Symbol.TypeSymbol) bytecodeCompleter.loadClass("java.util.LinkedList");
+    Symbol size = arrayList.members().lookup("size").get(0);
+    assertThat(linkedList.members().lookup("size").get(0).getName()).isSameAs(size.getName());
+  }
+
+  private static Token token(AstNode tree, String value) {
+    for (Token token : tree.getTokens()) {
+      if (value.equals(token.getValue())) {
+        return token;
+      }
+    }
+    throw new AssertionError("No token " + value);
+  }
+
+}
@@ -19,18 +19,24 @@
  */
 package org.sonar.java;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 
+import java.util.Collections;
 import java.util.List;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class ProgressReportTest {
 
@@ -69,6 +75,41 @@ public class ProgressReportTest {
     assertThat(messages.get(messages.size() - 1)).isEqualTo("foo stop");
   }
 
+  @Test
+  public void should_log_slowest_files_in_debug_after_stop_message() throws Exception {
+    Logger logger = mock(Logger.class);
+    when(logger.isDebugEnabled()).thenReturn(true);
+
+    ProgressReport report = new ProgressReport(ProgressReport.class.getName(), 100000, logger);
+    report.start("foo start");
+    report.fileAnalyzed("Fast.java", 1000000, Collections.<String, Long>emptyMap());
+    report.fileAnalyzed("Slow.java", 5000000, ImmutableMap.of("parse", 2000000L));
+    report.stop("foo stop");
+    report.join();
+
+    ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+    verify(logger, times(2)).info(captor.capture());
+    assertThat(captor.getAllValues()).containsExactly("foo start", "foo stop");
+    captor = ArgumentCaptor.forClass(String.class);
+    verify(logger, times(3)).debug(captor.capture());
+    assertThat(captor.getAllValues()).containsExactly("Slowest files:", "  Slow.java: 5 ms (parse: 2 ms)", "  Fast.java: 1 ms");
+    assertThat(report.getSlowestFiles().get(0).getPath()).isEqualTo("Slow.java");
+  }
+
+  @Test
+  public void should_not_log_slowest_files_when_not_in_debug() throws Exception {
+    Logger logger = mock(Logger.class);
+
+    ProgressReport report = new ProgressReport(ProgressReport.class.getName(), 100000, logger);
+    report.start("foo start");
+    report.fileAnalyzed("Slow.java", 5000000, Collections.<String, Long>emptyMap());
+    report.stop("foo stop");
+    report.join();
+
+    verify(logger, never()).debug(Mockito.anyString());
+    assertThat(report.getSlowestFiles()).hasSize(1);
+  }
+
   private static void waitForMessage(Logger logger) throws InterruptedException {
     synchronized (logger) {
       logger.wait();
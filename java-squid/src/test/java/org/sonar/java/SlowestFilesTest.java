@@ -0,0 +1,76 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SlowestFilesTest {
+
+  @Test
+  public void should_keep_slowest_files() {
+    SlowestFiles slowestFiles = new SlowestFiles(2);
+    slowestFiles.add("A", 3, Collections.<String, Long>emptyMap());
+    slowestFiles.add("B", 1, Collections.<String, Long>emptyMap());
+    slowestFiles.add("C", 5, Collections.<String, Long>emptyMap());
+    slowestFiles.add("D", 2, Collections.<String, Long>emptyMap());
+
+    List<SlowestFiles.FileTime> fileTimes = slowestFiles.get();
+    assertThat(fileTimes).hasSize(2);
+    assertThat(fileTimes.get(0).getPath()).isEqualTo("C");
+    assertThat(fileTimes.get(1).getPath()).isEqualTo("A");
+  }
+
+  @Test
+  public void should_merge_slowest_files() {
+    SlowestFiles other = new SlowestFiles(2);
+    other.add("A", 3, Collections.<String, Long>emptyMap());
+    other.add("B", 1, Collections.<String, Long>emptyMap());
+    SlowestFiles slowestFiles = new SlowestFiles(2);
+    slowestFiles.add("C", 2, Collections.<String, Long>emptyMap());
+
+    slowestFiles.addAll(other.get());
+
+    assertThat(slowestFiles.get().get(0).getPath()).isEqualTo("A");
+    assertThat(slowestFiles.get().get(1).getPath()).isEqualTo("C");
+  }
+
+  @Test
+  public void should_keep_nothing_when_size_is_zero() {
+    SlowestFiles slowestFiles = new SlowestFiles(0);
+    slowestFiles.add("A", 3, Collections.<String, Long>emptyMap());
+    assertThat(slowestFiles.get()).isEmpty();
+  }
+
+  @Test
+  public void should_describe_phases() {
+    SlowestFiles slowestFiles = new SlowestFiles(1);
+    slowestFiles.add("A", 3000000, ImmutableMap.of("parse", 1000000L, "checks", 2000000L));
+    slowestFiles.add("B", 1000000, Collections.<String, Long>emptyMap());
+
+    assertThat(slowestFiles.get().get(0).toString()).isEqualTo("A: 3 ms (parse: 1 ms, checks: 2 ms)");
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class VisitorsProfilerTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void should_accumulate_stats_per_visitor() throws Exception {
+    VisitorsProfiler profiler = new VisitorsProfiler();
+    Slow slow = new Slow();
+    Fast fast = new Fast();
+
+    for (int i = 0; i < 2; i++) {
+      VisitorsProfiler.Sample sample = profiler.start();
+      Thread.sleep(5);
+      profiler.stop(slow, sample);
+      profiler.stop(fast, profiler.start());
+    }
+
+    List<VisitorsProfiler.Stats> stats = profiler.getStats();
+    assertThat(stats).hasSize(2);
+    assertThat(stats.get(0).getName()).isEqualTo(Slow.class.getName());
+    assertThat(stats.get(0).getCalls()).isEqualTo(2);
+    assertThat(stats.get(0).getWallTime()).isGreaterThanOrEqualTo(10000000L);
+    assertThat(stats.get(1).getName()).isEqualTo(Fast.class.getName());
+    assertThat(stats.get(1).getCalls()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_key_stats_of_checks_by_rule_key() {
+    VisitorsProfiler profiler = new VisitorsProfiler();
+    profiler.stop(new Check(), profiler.start());
+    profiler.stop(new Check(), profiler.start());
+
+    List<VisitorsProfiler.Stats> stats = profiler.getStats();
+    assertThat(stats).hasSize(1);
+    assertThat(stats.get(0).getName()).isEqualTo("S42");
+    assertThat(stats.get(0).getCalls()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_write_report() throws Exception {
+    VisitorsProfiler profiler = new VisitorsProfiler();
+    profiler.stop(new Slow(), profiler.start());
+    File report = new File(temp.getRoot(), "report.json");
+
+    profiler.writeReport(report);
+    profiler.logSummary(10);
+
+    String json = Files.toString(report, Charsets.UTF_8);
+    assertThat(json).startsWith("[").contains("\"visitor\":\"" + Slow.class.getName() + "\",\"calls\":1,\"wallTime\":");
+  }
+
+  private static class Slow {
+  }
+
+  private static class Fast {
+  }
+
+  @org.sonar.check.Rule(key = "S42")
+  private static class Check {
+  }
+
+}
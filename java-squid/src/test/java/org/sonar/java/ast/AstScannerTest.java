@@ -23,12 +23,16 @@ import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.sonar.sslr.api.AstNode;
 import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.impl.Parser;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
+import org.sonar.java.AnalysisMetrics;
+import org.sonar.java.VisitorsProfiler;
+import org.sonar.java.model.VisitorsBridge;
 import org.sonar.squidbridge.AstScannerExceptionHandler;
 import org.sonar.squidbridge.SquidAstVisitor;
 import org.sonar.squidbridge.api.AnalysisException;
@@ -38,9 +42,14 @@ import org.sonar.sslr.parser.LexerlessGrammar;
 import org.sonar.sslr.parser.ParserAdapter;
 
 import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class AstScannerTest {
 
@@ -118,6 +127,100 @@ public class AstScannerTest {
     scanner.scan(ImmutableList.of(new File("src/test/resources/AstScannerNoParseError.txt")));
   }
 
+  @Test
+  public void should_profile_visitors() {
+    VisitorsProfiler profiler = new VisitorsProfiler();
+    AstScanner scanner = new AstScanner(new ParserAdapter<LexerlessGrammar>(Charsets.UTF_8, FakeGrammar.builder().build()));
+    FakeVisitor visitor = new FakeVisitor();
+    scanner.withSquidAstVisitor(visitor);
+    scanner.setProfiler(profiler);
+
+    scanner.scan(ImmutableList.of(new File("src/test/resources/AstScannerNoParseError.txt")));
+
+    assertThat(profiler.getStats()).hasSize(1);
+    assertThat(profiler.getStats().get(0).getName()).isEqualTo(FakeVisitor.class.getName());
+    // visitFile and leaveFile
+    assertThat(profiler.getStats().get(0).getCalls()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_not_profile_bridge_as_a_whole() {
+    VisitorsProfiler profiler = new VisitorsProfiler();
+    AstScanner scanner = new AstScanner(new ParserAdapter<LexerlessGrammar>(Charsets.UTF_8, FakeGrammar.builder().build()));
+    VisitorsBridge bridge = mock(VisitorsBridge.class);
+    scanner.withSquidAstVisitor(new FakeVisitor());
+    scanner.withSquidAstVisitor(bridge);
+    scanner.setProfiler(profiler);
+
+    scanner.scan(ImmutableList.of(new File("src/test/resources/AstScannerNoParseError.txt")));
+
+    verify(bridge).visitFile(Mockito.any(AstNode.class));
+    assertThat(profiler.getStats()).hasSize(1);
+    assertThat(profiler.getStats().get(0).getName()).isEqualTo(FakeVisitor.class.getName());
+  }
+
+  @Test
+  public void should_collect_metrics() {
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    AstScanner scanner = new AstScanner(new ParserAdapter<LexerlessGrammar>(Charsets.UTF_8, FakeGrammar.builder().build()));
+    scanner.withSquidAstVisitor(new FakeVisitor());
+    scanner.setMetrics(metrics);
+
+    File file = new File("src/test/resources/AstScannerNoParseError.txt");
+    File fileWithParseError = new File("src/test/resources/AstScannerParseError.txt");
+    scanner.scan(ImmutableList.of(file, fileWithParseError));
+
+    assertThat(metrics.getCounter(AnalysisMetrics.FILES)).isEqualTo(2);
+    assertThat(metrics.getCounter(AnalysisMetrics.BYTES)).isEqualTo(file.length() + fileWithParseError.length());
+    assertThat(metrics.getCounter(AnalysisMetrics.PARSE_ERRORS)).isEqualTo(1);
+    assertThat(metrics.getFilesWithParseErrors()).containsOnly(fileWithParseError.getPath());
+    assertThat(metrics.getTime(AnalysisMetrics.PARSE)).isGreaterThan(0);
+    assertThat(metrics.getSlowestFiles()).hasSize(2);
+    assertThat(metrics.getSlowestFiles().get(0).getPhases().keySet()).contains(AnalysisMetrics.PARSE);
+  }
+
+  @Test
+  public void should_not_fail_whole_analysis_upon_stack_overflow_during_parse() {
+    FakeAuditListener listener = spy(new FakeAuditListener());
+    Parser<LexerlessGrammar> parser = mock(Parser.class);
+    when(parser.parse(Mockito.any(File.class))).thenThrow(new StackOverflowError());
+
+    AstScanner scanner = new AstScanner(parser);
+    scanner.withSquidAstVisitor(listener);
+
+    scanner.scan(ImmutableList.of(new File("src/test/resources/AstScannerNoParseError.txt")));
+    verify(listener).processRecognitionException(Mockito.any(RecognitionException.class));
+  }
+
+  @Test
+  public void should_not_report_stack_overflow_in_visitor_as_parse_error() {
+    final AtomicBoolean parseError = new AtomicBoolean();
+    FakeAuditListener listener = new FakeAuditListener() {
+
+      @Override
+      public void visitFile(AstNode node) {
+        if (node != null) {
+          throw new StackOverflowError();
+        }
+      }
+
+      @Override
+      public void processRecognitionException(RecognitionException e) {
+        parseError.set(true);
+      }
+
+    };
+    AstScanner scanner = new AstScanner(new ParserAdapter<LexerlessGrammar>(Charsets.UTF_8, FakeGrammar.builder().build()));
+    scanner.withSquidAstVisitor(listener);
+
+    try {
+      scanner.scan(ImmutableList.of(new File("src/test/resources/AstScannerNoParseError.txt")));
+      fail();
+    } catch (StackOverflowError e) {
+      assertThat(parseError.get()).isFalse();
+    }
+  }
+
   private static class FakeAuditListener extends SquidAstVisitor<LexerlessGrammar> implements AstScannerExceptionHandler {
 
     @Override
@@ -144,4 +247,7 @@ public class AstScannerTest {
 
   }
 
+  private static class FakeVisitor extends SquidAstVisitor<LexerlessGrammar> {
+  }
+
 }
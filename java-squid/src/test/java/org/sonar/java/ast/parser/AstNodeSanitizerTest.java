@@ -25,6 +25,10 @@ import com.sonar.sslr.api.Token;
 import com.sonar.sslr.api.TokenType;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -158,4 +162,50 @@ public class AstNodeSanitizerTest {
     assertThat(astNode.getToIndex()).isEqualTo(0);
   }
 
+  @Test
+  public void should_not_overflow_on_deeply_nested_nodes() {
+    Token token = mock(Token.class);
+    when(token.getType()).thenReturn(TOKEN_TYPE);
+    AstNode leaf = new AstNode(token);
+    leaf.setFromIndex(1);
+    leaf.setToIndex(2);
+
+    AstNode astNode = leaf;
+    for (int i = 0; i < 100000; i++) {
+      AstNode parent = new AstNode(ASTNODE_TYPE, ASTNODE_TYPE.toString(), null);
+      parent.addChild(astNode);
+      astNode = parent;
+    }
+
+    new AstNodeSanitizer().sanitize(astNode);
+
+    assertThat(astNode.getToken()).isSameAs(token);
+    assertThat(astNode.getFromIndex()).isEqualTo(1);
+    assertThat(astNode.getToIndex()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_trim_children_lists() throws Exception {
+    Token token = mock(Token.class);
+    when(token.getType()).thenReturn(TOKEN_TYPE);
+    AstNode astNode1 = new AstNode(token);
+    AstNode astNode2 = new AstNode(ASTNODE_TYPE, ASTNODE_TYPE.toString(), null);
+
+    AstNode astNode = new AstNode(ASTNODE_TYPE, ASTNODE_TYPE.toString(), null);
+    astNode.addChild(astNode1);
+    astNode.addChild(astNode2);
+    assertThat(capacity(astNode.getChildren())).isGreaterThan(2);
+
+    new AstNodeSanitizer().sanitize(astNode);
+
+    assertThat(astNode.getChildren()).containsExactly(astNode1, astNode2);
+    assertThat(capacity(astNode.getChildren())).isEqualTo(2);
+  }
+
+  private static int capacity(List<AstNode> list) throws Exception {
+    Field elementData = ArrayList.class.getDeclaredField("elementData");
+    elementData.setAccessible(true);
+    return ((Object[]) elementData.get(list)).length;
+  }
+
 }
@@ -0,0 +1,80 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.ast.parser;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.sonar.sslr.api.AstNode;
+import com.sonar.sslr.api.RecognitionException;
+import org.junit.Test;
+import org.sonar.java.parser.sslr.ActionParser2;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class JavaParserTest {
+
+  @Test
+  public void parsers_should_share_grammar() {
+    ActionParser2 parser1 = JavaParser.createParser(Charsets.UTF_8);
+    ActionParser2 parser2 = JavaParser.createParser(Charsets.ISO_8859_1);
+
+    assertThat(parser1).isNotSameAs(parser2);
+    assertThat(parser1.actionGrammar()).isSameAs(parser2.actionGrammar());
+    assertThat(parser1.getGrammar()).isSameAs(parser2.getGrammar());
+    assertThat(parser1.rootRule()).isSameAs(JavaLexer.COMPILATION_UNIT);
+  }
+
+  @Test
+  public void parsers_should_be_independent() {
+    AstNode tree1 = JavaParser.createParser(Charsets.UTF_8).parse("class A {}");
+    AstNode tree2 = JavaParser.createParser(Charsets.UTF_8).parse("class B {}");
+
+    assertThat(tree1).isInstanceOf(CompilationUnitTree.class);
+    assertThat(tree2).isInstanceOf(CompilationUnitTree.class);
+    assertThat(tree1.getToIndex()).isEqualTo(10);
+  }
+
+  @Test
+  public void should_create_deeply_nested_trees_without_recursion() {
+    AstNode tree = JavaParser.createParser(Charsets.UTF_8).parse("class A { int a = " + Strings.repeat("(", 2000) + "1" + Strings.repeat(")", 2000) + "; }");
+
+    assertThat(tree).isInstanceOf(CompilationUnitTree.class);
+  }
+
+  @Test
+  public void should_fail_when_nesting_exceeds_budget() {
+    ActionParser2 parser = JavaParser.createParser(Charsets.UTF_8);
+    parser.setBudget(new ParseBudget(0, 100));
+
+    assertThat(parser.parse("class A { int a = (1); }")).isInstanceOf(CompilationUnitTree.class);
+    // depth of the syntax tree is checked, not the much deeper one of the parse tree
+    assertThat(parser.parse("class A { void m() { if (a) { for (int i = 0; i < b; i++) { c.d(i + 1); } } } }")).isInstanceOf(CompilationUnitTree.class);
+    try {
+      parser.parse("class A { int a = " + Strings.repeat("(", 100) + "1" + Strings.repeat(")", 100) + "; }");
+      fail();
+    } catch (RecognitionException e) {
+      assertThat(e.getLine()).isEqualTo(1);
+      assertThat(e.getMessage()).contains("deeper than 100");
+    }
+  }
+
+}
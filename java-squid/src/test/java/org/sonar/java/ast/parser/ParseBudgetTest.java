@@ -0,0 +1,61 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.ast.parser;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ParseBudgetTest {
+
+  @Test
+  public void no_limit() throws Exception {
+    ParseBudget budget = new ParseBudget(0, 0);
+    Thread.sleep(5);
+    assertThat(budget.onNode(Integer.MAX_VALUE)).isNull();
+    assertThat(budget.checkTime()).isNull();
+  }
+
+  @Test
+  public void depth_limit() {
+    ParseBudget budget = new ParseBudget(0, 10);
+    assertThat(budget.onNode(10)).isNull();
+    assertThat(budget.onNode(11)).isEqualTo("Nesting of the syntax tree is deeper than 10");
+  }
+
+  @Test
+  public void depth_not_checked_for_nodes_of_parse_tree() {
+    ParseBudget budget = new ParseBudget(0, 10);
+    for (int i = 0; i < 2048; i++) {
+      assertThat(budget.onNode()).isNull();
+    }
+  }
+
+  @Test
+  public void time_limit_restarted_for_each_file() throws Exception {
+    ParseBudget budget = new ParseBudget(100, 0);
+    Thread.sleep(150);
+    assertThat(budget.checkTime()).isEqualTo("Parsing takes more than 100 ms");
+
+    budget.start();
+    assertThat(budget.checkTime()).isNull();
+  }
+
+}
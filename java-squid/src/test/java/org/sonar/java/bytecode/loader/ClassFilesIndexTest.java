@@ -0,0 +1,56 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.bytecode.loader;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ClassFilesIndexTest {
+
+  private final File jar = new File("src/test/files/bytecode/lib/hello.jar");
+  private final File dir = new File("src/test/files/bytecode/bin/");
+
+  @Test
+  public void should_index_class_files_of_jars_and_directories() {
+    ClassFilesIndex index = new ClassFilesIndex(Arrays.asList(jar, dir));
+
+    assertThat(index.mayContain("org/sonar/tests/Hello.class")).isTrue();
+    assertThat(index.mayContain("tags/TagName.class")).isTrue();
+    assertThat(index.mayContain("tags/Unknown.class")).isFalse();
+    assertThat(Arrays.binarySearch(index.hashesOf(jar), "org/sonar/tests/Hello.class".hashCode())).isGreaterThanOrEqualTo(0);
+    assertThat(Arrays.binarySearch(index.hashesOf(dir), "org/sonar/tests/Hello.class".hashCode())).isLessThan(0);
+  }
+
+  @Test
+  public void should_not_index_other_files() {
+    File unknownJar = new File("src/test/files/bytecode/lib/unknown.jar");
+    File source = new File("src/test/files/bytecode/src/tags/TagName.java");
+    ClassFilesIndex index = new ClassFilesIndex(Arrays.asList(unknownJar, source));
+
+    assertThat(index.hashesOf(unknownJar)).isNull();
+    assertThat(index.hashesOf(source)).isNull();
+    assertThat(index.mayContain("tags/TagName.class")).isFalse();
+  }
+
+}
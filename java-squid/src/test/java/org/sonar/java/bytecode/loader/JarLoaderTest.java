@@ -28,6 +28,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.jar.JarFile;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -81,6 +82,14 @@ public class JarLoaderTest {
     ByteArrayInputStream is = new ByteArrayInputStream(bytes);
     assertThat(IOUtils.readLines(is)).contains("Manifest-Version: 1.0");
 
+    JarFile jarFile = new JarFile(jar);
+    try {
+      byte[] expected = IOUtils.toByteArray(jarFile.getInputStream(jarFile.getEntry("org/sonar/tests/Hello.class")));
+      assertThat(loader.loadBytes("org/sonar/tests/Hello.class")).isEqualTo(expected);
+    } finally {
+      jarFile.close();
+    }
+
     loader.close();
 
     thrown.expect(IllegalStateException.class);
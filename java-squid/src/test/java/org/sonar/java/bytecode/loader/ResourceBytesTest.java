@@ -0,0 +1,48 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.bytecode.loader;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ResourceBytesTest {
+
+  private static final byte[] BYTES = {1, 2, 3};
+
+  @Test
+  public void should_read_resource_of_known_size() throws Exception {
+    assertThat(ResourceBytes.read(new ByteArrayInputStream(BYTES), 3)).isEqualTo(BYTES);
+  }
+
+  @Test
+  public void should_read_resource_of_unknown_size() throws Exception {
+    assertThat(ResourceBytes.read(new ByteArrayInputStream(BYTES), -1)).isEqualTo(BYTES);
+  }
+
+  @Test(expected = EOFException.class)
+  public void should_fail_when_resource_is_smaller_than_expected() throws Exception {
+    ResourceBytes.read(new ByteArrayInputStream(BYTES), 4);
+  }
+
+}
@@ -20,11 +20,13 @@
 package org.sonar.java.bytecode.loader;
 
 import com.google.common.collect.Iterators;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.util.Arrays;
@@ -37,6 +39,9 @@ public class SquidClassLoaderTest {
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   private SquidClassLoader classLoader;
 
   @After
@@ -118,6 +123,36 @@ public class SquidClassLoaderTest {
     assertThat(Iterators.forEnumeration(classLoader.findResources("notfound"))).hasSize(0);
   }
 
+  @Test
+  public void createWithIndex() throws Exception {
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    File dir = new File("src/test/files/bytecode/bin/");
+    classLoader = new SquidClassLoader(Arrays.asList(jar, dir), new ClassFilesIndex(Arrays.asList(jar, dir)));
+
+    assertThat(classLoader.loadClass("org.sonar.tests.Hello")).isNotNull();
+    assertThat(classLoader.loadClass("tags.TagName")).isNotNull();
+    assertThat(classLoader.getResource("java/lang/Integer.class")).isNotNull();
+    assertThat(Iterators.forEnumeration(classLoader.findResources("tags/TagName.class"))).hasSize(1);
+    assertThat(classLoader.findResource("tags/Unknown.class")).isNull();
+    assertThat(Iterators.forEnumeration(classLoader.findResources("tags/Unknown.class"))).hasSize(0);
+    thrown.expect(ClassNotFoundException.class);
+    classLoader.loadClass("tags.Unknown");
+  }
+
+  @Test
+  public void elements_which_do_not_contain_a_class_according_to_index_should_not_be_probed() throws Exception {
+    File dir = temp.newFolder();
+    ClassFilesIndex index = new ClassFilesIndex(Arrays.asList(dir));
+    FileUtils.copyFileToDirectory(new File("src/test/files/bytecode/bin/tags/TagName.class"), new File(dir, "tags"));
+
+    classLoader = new SquidClassLoader(Arrays.asList(dir), index);
+    assertThat(classLoader.getResource("tags/TagName.class")).isNull();
+    classLoader.close();
+
+    classLoader = new SquidClassLoader(Arrays.asList(dir), new ClassFilesIndex(Arrays.asList(dir)));
+    assertThat(classLoader.getResource("tags/TagName.class")).isNotNull();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File jar = new File("src/test/files/bytecode/lib/hello.jar");
@@ -0,0 +1,58 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.model;
+
+import com.google.common.collect.ImmutableList;
+import com.sonar.sslr.api.Token;
+import com.sonar.sslr.api.Trivia;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InternalSyntaxTokenTest {
+
+  @Test
+  public void tokens_without_trivia_share_empty_trivias() {
+    InternalSyntaxToken token1 = new InternalSyntaxToken(mock(Token.class));
+    InternalSyntaxToken token2 = new InternalSyntaxToken(mock(Token.class));
+
+    assertThat(token1.trivias()).isEmpty();
+    assertThat(token1.trivias()).isSameAs(token2.trivias());
+  }
+
+  @Test
+  public void trivias_of_token() {
+    Token comment = mock(Token.class);
+    when(comment.getValue()).thenReturn("// comment");
+    when(comment.getLine()).thenReturn(3);
+    Token token = mock(Token.class);
+    when(token.hasTrivia()).thenReturn(true);
+    when(token.getTrivia()).thenReturn(ImmutableList.of(Trivia.createComment(comment)));
+
+    InternalSyntaxToken syntaxToken = new InternalSyntaxToken(token);
+
+    assertThat(syntaxToken.trivias()).hasSize(1);
+    assertThat(syntaxToken.trivias().get(0).comment()).isEqualTo("// comment");
+    assertThat(syntaxToken.trivias().get(0).startLine()).isEqualTo(3);
+  }
+
+}
@@ -87,6 +87,18 @@ public class InputTest {
       2, 1);
   }
 
+  @Test
+  public void lineAndColumnAt_many_lines() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      sb.append("abc\n");
+    }
+    Input input = new Input(sb.toString().toCharArray());
+    int[] location = input.lineAndColumnAt(4 * 99 + 1);
+    assertThat(location[0]).isEqualTo(100);
+    assertThat(location[1]).isEqualTo(2);
+  }
+
   private static void assertLineAndColumn(String string, int index, int expectedLine, int expectedColumn) {
     int[] location = new Input(string.toCharArray()).lineAndColumnAt(index);
     assertThat(location[0]).isEqualTo(expectedLine);
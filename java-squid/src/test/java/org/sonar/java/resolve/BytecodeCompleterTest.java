@@ -89,6 +89,18 @@ public class BytecodeCompleterTest {
     assertThat(outerClass.members().lookup(HasInnerClass.InnerClass.class.getSimpleName())).hasSize(1);
   }
 
+  @Test
+  public void members_are_completed_only_when_requested() throws Exception {
+    Symbol.TypeSymbol arrayList = bytecodeCompleter.getClassSymbol("java/util/ArrayList");
+    assertThat(arrayList.getSuperclass().symbol.name).isEqualTo("AbstractList");
+    assertThat(bytecodeCompleter.getCompletedMembers()).isEqualTo(0);
+    assertThat(arrayList.members.lookup("size")).isEmpty();
+
+    assertThat(arrayList.members().lookup("size")).hasSize(2);
+    assertThat(arrayList.members().lookup("size")).hasSize(2);
+    assertThat(bytecodeCompleter.getCompletedMembers()).isEqualTo(1);
+  }
+
   @Test
   public void completing_symbol_ArrayList() throws Exception {
     Symbol.TypeSymbol arrayList = bytecodeCompleter.getClassSymbol("java/util/ArrayList");
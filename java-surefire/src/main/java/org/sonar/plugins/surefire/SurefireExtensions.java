@@ -21,6 +21,7 @@ package org.sonar.plugins.surefire;
 
 import com.google.common.collect.ImmutableList;
 import org.sonar.api.CoreProperties;
+import org.sonar.api.PropertyType;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.plugins.surefire.api.SurefireUtils;
@@ -41,6 +42,24 @@ public final class SurefireExtensions {
             .category(CoreProperties.CATEGORY_JAVA)
             .subCategory("JUnit")
             .build(),
+        PropertyDefinition.builder(SurefireUtils.SUREFIRE_PARSING_THREADS_PROPERTY)
+            .defaultValue(SurefireUtils.SUREFIRE_PARSING_THREADS_DEFAULT_VALUE + "")
+            .name("JUnit Reports parsing threads")
+            .description("Number of threads used to parse the JUnit report files. Values greater than 1 enable parallel parsing.")
+            .onQualifiers(Qualifiers.PROJECT)
+            .category(CoreProperties.CATEGORY_JAVA)
+            .subCategory("JUnit")
+            .type(PropertyType.INTEGER)
+            .build(),
+        PropertyDefinition.builder(SurefireUtils.SUREFIRE_STACK_TRACE_MAX_LENGTH_PROPERTY)
+            .defaultValue("0")
+            .name("Stack traces maximal length")
+            .description("Maximal number of characters of the stack traces kept for failed tests. 0 means that stack traces are kept entirely.")
+            .onQualifiers(Qualifiers.PROJECT)
+            .category(CoreProperties.CATEGORY_JAVA)
+            .subCategory("JUnit")
+            .type(PropertyType.INTEGER)
+            .build(),
 
         SurefireSensor.class,
         SurefireJavaParser.class);
@@ -19,6 +19,8 @@
  */
 package org.sonar.plugins.surefire;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,7 +44,14 @@ import org.sonar.plugins.surefire.data.UnitTestResult;
 import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @since 2.4
@@ -60,9 +69,18 @@ public class SurefireJavaParser implements BatchExtension {
 
 
   public void collect(SensorContext context, File reportsDir) {
+    collect(context, reportsDir, 1, 0);
+  }
+
+  /**
+   * @param parsingThreads number of threads used to parse report files, values greater than 1 enable parallel parsing
+   * @param stackTraceMaxLength maximal number of characters kept from stack traces, 0 meaning no limit
+   * @since 2.9
+   */
+  public void collect(SensorContext context, File reportsDir, int parsingThreads, int stackTraceMaxLength) {
     File[] xmlFiles = getReports(reportsDir);
     if (xmlFiles.length > 0) {
-      parseFiles(context, xmlFiles);
+      parseFiles(context, xmlFiles, parsingThreads, stackTraceMaxLength);
     }
   }
 
@@ -90,15 +108,55 @@ public class SurefireJavaParser implements BatchExtension {
     });
   }
 
-  private void parseFiles(SensorContext context, File[] reports) {
-    UnitTestIndex index = new UnitTestIndex();
-    parseFiles(reports, index);
+  private void parseFiles(SensorContext context, File[] reports, int parsingThreads, int stackTraceMaxLength) {
+    UnitTestIndex index;
+    if (parsingThreads > 1 && reports.length > 1) {
+      index = parseFilesInParallel(Arrays.asList(reports), parsingThreads, stackTraceMaxLength);
+    } else {
+      index = new UnitTestIndex();
+      parseFiles(Arrays.asList(reports), index, stackTraceMaxLength);
+    }
     sanitize(index);
     save(index, context);
   }
 
-  private void parseFiles(File[] reports, UnitTestIndex index) {
-    SurefireStaxHandler staxParser = new SurefireStaxHandler(index);
+  /**
+   * Reports are partitioned across workers, each one filling its own index. Indexes are then merged in the order of the partitions,
+   * so that results are the same as with a sequential parsing.
+   */
+  private static UnitTestIndex parseFilesInParallel(List<File> reports, int parsingThreads, final int stackTraceMaxLength) {
+    int partitionSize = (reports.size() + parsingThreads - 1) / parsingThreads;
+    ExecutorService executorService = Executors.newFixedThreadPool(parsingThreads);
+    try {
+      List<Future<UnitTestIndex>> futures = Lists.newArrayList();
+      for (final List<File> partition : Lists.partition(reports, partitionSize)) {
+        futures.add(executorService.submit(new Callable<UnitTestIndex>() {
+          @Override
+          public UnitTestIndex call() {
+            UnitTestIndex index = new UnitTestIndex();
+            parseFiles(partition, index, stackTraceMaxLength);
+            return index;
+          }
+        }));
+      }
+      UnitTestIndex index = new UnitTestIndex();
+      for (Future<UnitTestIndex> future : futures) {
+        index.merge(future.get());
+      }
+      return index;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SonarException("Interrupted during parsing of Surefire reports", e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), SonarException.class);
+      throw new SonarException("Fail to parse the Surefire reports", e.getCause());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private static void parseFiles(List<File> reports, UnitTestIndex index, int stackTraceMaxLength) {
+    SurefireStaxHandler staxParser = new SurefireStaxHandler(index, stackTraceMaxLength);
     StaxParser parser = new StaxParser(staxParser, false);
     for (File report : reports) {
       try {
@@ -154,9 +212,12 @@ public class SurefireJavaParser implements BatchExtension {
   }
 
   protected void saveResults(Resource testFile, UnitTestClassReport report) {
-    for (UnitTestResult unitTestResult : report.getResults()) {
-      MutableTestPlan testPlan = perspectives.as(MutableTestPlan.class, testFile);
-      if (testPlan != null) {
+    if (report.getResults().isEmpty()) {
+      return;
+    }
+    MutableTestPlan testPlan = perspectives.as(MutableTestPlan.class, testFile);
+    if (testPlan != null) {
+      for (UnitTestResult unitTestResult : report.getResults()) {
         testPlan.addTestCase(unitTestResult.getName())
             .setDurationInMs(Math.max(unitTestResult.getDurationMilliseconds(), 0))
             .setStatus(TestCase.Status.of(unitTestResult.getStatus()))
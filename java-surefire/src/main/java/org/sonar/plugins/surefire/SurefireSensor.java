@@ -29,6 +29,7 @@ import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.plugins.surefire.api.SurefireUtils;
 
 import java.io.File;
@@ -41,11 +42,13 @@ public class SurefireSensor implements Sensor {
   private final SurefireJavaParser surefireJavaParser;
   private final Settings settings;
   private final FileSystem fs;
+  private final AnalysisMetrics metrics;
 
-  public SurefireSensor(SurefireJavaParser surefireJavaParser, Settings settings, FileSystem fs) {
+  public SurefireSensor(SurefireJavaParser surefireJavaParser, Settings settings, FileSystem fs, AnalysisMetrics metrics) {
     this.surefireJavaParser = surefireJavaParser;
     this.settings = settings;
     this.fs = fs;
+    this.metrics = metrics;
   }
 
   @DependsUpon
@@ -61,12 +64,15 @@ public class SurefireSensor implements Sensor {
   @Override
   public void analyse(Project project, SensorContext context) {
     File dir = SurefireUtils.getReportsDirectory(settings, project);
+    long start = System.nanoTime();
     collect(context, dir);
+    metrics.addTime(AnalysisMetrics.SUREFIRE, System.nanoTime() - start);
+    metrics.writeReport(fs.workDir());
   }
 
   protected void collect(SensorContext context, File reportsDir) {
     LOGGER.info("parsing {}", reportsDir);
-    surefireJavaParser.collect(context, reportsDir);
+    surefireJavaParser.collect(context, reportsDir, SurefireUtils.getParsingThreads(settings), SurefireUtils.getStackTraceMaxLength(settings));
   }
 
   @Override
@@ -32,6 +32,9 @@ import java.io.File;
 public final class SurefireUtils {
 
   public static final String SUREFIRE_REPORTS_PATH_PROPERTY = "sonar.junit.reportsPath";
+  public static final String SUREFIRE_PARSING_THREADS_PROPERTY = "sonar.junit.parsingThreads";
+  public static final int SUREFIRE_PARSING_THREADS_DEFAULT_VALUE = 1;
+  public static final String SUREFIRE_STACK_TRACE_MAX_LENGTH_PROPERTY = "sonar.junit.stackTraceMaxLength";
 
   public static File getReportsDirectory(Settings settings, Project project) {
     File dir = getReportsDirectoryFromProperty(settings, project);
@@ -44,6 +47,22 @@ public final class SurefireUtils {
     return dir;
   }
 
+  /**
+   * @since 2.9
+   */
+  public static int getParsingThreads(Settings settings) {
+    return Math.max(settings.getInt(SUREFIRE_PARSING_THREADS_PROPERTY), 1);
+  }
+
+  /**
+   * Maximal length of stack traces kept for failed tests, 0 meaning no limit.
+   *
+   * @since 2.9
+   */
+  public static int getStackTraceMaxLength(Settings settings) {
+    return Math.max(settings.getInt(SUREFIRE_STACK_TRACE_MAX_LENGTH_PROPERTY), 0);
+  }
+
   private static File getReportsDirectoryFromProperty(Settings settings, Project project) {
     String path = settings.getString(SUREFIRE_REPORTS_PATH_PROPERTY);
     if (path != null) {
@@ -34,9 +34,18 @@ import java.util.Locale;
 public class SurefireStaxHandler implements XmlStreamHandler {
 
   private final UnitTestIndex index;
+  private final int stackTraceMaxLength;
 
   public SurefireStaxHandler(UnitTestIndex index) {
+    this(index, 0);
+  }
+
+  /**
+   * @param stackTraceMaxLength maximal number of characters kept from stack traces, 0 meaning no limit
+   */
+  public SurefireStaxHandler(UnitTestIndex index, int stackTraceMaxLength) {
     this.index = index;
+    this.stackTraceMaxLength = stackTraceMaxLength;
   }
 
   @Override
@@ -75,6 +84,9 @@ public class SurefireStaxHandler implements XmlStreamHandler {
   private void setStackAndMessage(UnitTestResult result, SMInputCursor stackAndMessageCursor) throws XMLStreamException {
     result.setMessage(stackAndMessageCursor.getAttrValue("message"));
     String stack = stackAndMessageCursor.collectDescendantText();
+    if (stackTraceMaxLength > 0) {
+      stack = StringUtils.left(stack, stackTraceMaxLength);
+    }
     result.setStackTrace(stack);
   }
 
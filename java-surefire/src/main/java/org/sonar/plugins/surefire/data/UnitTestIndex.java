@@ -72,6 +72,16 @@ public class UnitTestIndex {
     return null;
   }
 
+  /**
+   * Adds all the results of another index into this one, e.g. when reports were parsed concurrently into distinct indexes.
+   */
+  public UnitTestIndex merge(UnitTestIndex other) {
+    for (Map.Entry<String, UnitTestClassReport> entry : other.indexByClassname.entrySet()) {
+      index(entry.getKey()).add(entry.getValue());
+    }
+    return this;
+  }
+
   public void remove(String classname) {
     indexByClassname.remove(classname);
   }
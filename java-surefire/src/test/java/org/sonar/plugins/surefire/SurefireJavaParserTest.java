@@ -94,6 +94,8 @@ public class SurefireJavaParserTest {
 
     verify(testPlan).addTestCase("testGetUnKnownCollector");
     verify(testPlan).addTestCase("testGetJDependsCollector");
+    verify(perspectives, times(1)).as(eq(MutableTestPlan.class),
+        argThat(new IsResource(Scopes.FILE, Qualifiers.FILE, "ch.hortis.sonar.mvn.mc.MetricsCollectorRegistryTest")));
   }
 
 
@@ -127,6 +129,17 @@ public class SurefireJavaParserTest {
     verify(context, times(6)).saveMeasure(argThat(new IsResource(Scopes.FILE, Qualifiers.FILE)), eq(CoreMetrics.TEST_ERRORS), anyDouble());
   }
 
+  @Test
+  public void should_aggregate_reports_parsed_in_parallel() throws URISyntaxException {
+    SensorContext context = mockContext();
+
+    parser.collect(context, getDir("multipleReports"), 4, 0);
+
+    verify(context, times(6)).saveMeasure(argThat(new IsResource(Scopes.FILE, Qualifiers.FILE)), eq(CoreMetrics.SKIPPED_TESTS), eq(0.0));
+    verify(context, times(6)).saveMeasure(argThat(new IsResource(Scopes.FILE, Qualifiers.FILE)), eq(CoreMetrics.TESTS), anyDouble());
+    verify(context, times(6)).saveMeasure(argThat(new IsResource(Scopes.FILE, Qualifiers.FILE)), eq(CoreMetrics.TEST_ERRORS), anyDouble());
+  }
+
   // SONAR-2841: if there's only a test suite report, then it should be read.
   @Test
   public void shouldUseTestSuiteReportIfAlone() throws URISyntaxException {
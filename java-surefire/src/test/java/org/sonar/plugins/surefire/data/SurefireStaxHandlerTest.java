@@ -106,6 +106,16 @@ public class SurefireStaxHandlerTest {
     assertThat(error.getName(), is("testTwo"));
   }
 
+  @Test
+  public void shouldTruncateStackTraces() throws XMLStreamException {
+    File xml = TestUtils.getResource(getClass(), "errorsAndFailures.xml");
+    new StaxParser(new SurefireStaxHandler(index, 10), false).parse(xml);
+
+    UnitTestResult failure = index.get("org.sonar.Foo").getResults().get(0);
+    assertThat(failure.getStackTrace().length(), is(10));
+    assertThat(failure.getMessage(), startsWith("expected"));
+  }
+
   @Test
   public void shouldSupportMultipleSuitesInSameReport() throws XMLStreamException {
     parse("multipleSuites.xml");
@@ -112,4 +112,20 @@ public class UnitTestIndexTest {
 
     assertThat(index.size(), is(0));
   }
+
+  @Test
+  public void shouldMergeIndexes() {
+    UnitTestIndex index = new UnitTestIndex();
+    index.index("org.sonar.Foo").add(new UnitTestResult().setStatus(UnitTestResult.STATUS_OK));
+    UnitTestIndex other = new UnitTestIndex();
+    other.index("org.sonar.Foo").add(new UnitTestResult().setStatus(UnitTestResult.STATUS_ERROR));
+    other.index("org.sonar.Bar").add(new UnitTestResult().setStatus(UnitTestResult.STATUS_OK));
+
+    index.merge(other);
+
+    assertThat(index.size(), is(2));
+    assertThat(index.get("org.sonar.Foo").getTests(), is(2L));
+    assertThat(index.get("org.sonar.Foo").getErrors(), is(1L));
+    assertThat(index.get("org.sonar.Bar").getTests(), is(1L));
+  }
 }
@@ -24,6 +24,9 @@ import org.junit.runner.notification.RunListener;
 
 /**
  * JUnit listener that instructs JaCoCo to create one session per test.
+ * Tests executed in parallel in the same JVM are supported only when system property
+ * {@code sonar.jacoco.listeners.parallelTests} is set to {@code true}: coverage of overlapping tests is then
+ * recorded per test class, in sessions shared by the test classes which ran at the same time.
  */
 public class JUnitListener extends RunListener {
 
@@ -23,14 +23,38 @@ import org.jacoco.agent.rt.IAgent;
 import org.jacoco.agent.rt.RT;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 class JacocoController {
 
   private static final String ERROR = "Unable to access JaCoCo Agent - make sure that you use JaCoCo and version not lower than 0.6.2.";
 
+  /**
+   * System property to set to {@code true} in order to record coverage of tests executed in parallel in the same JVM.
+   */
+  static final String PARALLEL_TESTS_PROPERTY = "sonar.jacoco.listeners.parallelTests";
+
+  /**
+   * Prefix of the session which holds the coverage shared by test classes executed in parallel.
+   * It is followed by the names of these test classes, separated by spaces.
+   */
+  static final String PARALLEL_SESSION_PREFIX = "parallel:";
+
   private final IAgent agent;
+  private final boolean parallelTests;
 
-  private boolean testStarted;
+  /**
+   * Tests currently running.
+   */
+  private final List<String> runningTests = new ArrayList<String>();
+
+  /**
+   * Tests which ran since the last dump: coverage of the next dump can not be separated between them.
+   */
+  private final Set<String> overlappingTests = new LinkedHashSet<String>();
 
   private static JacocoController singleton;
 
@@ -49,31 +73,72 @@ class JacocoController {
     } catch (Exception e) {
       throw new JacocoControllerError(ERROR, e);
     }
+    this.parallelTests = Boolean.getBoolean(PARALLEL_TESTS_PROPERTY);
   }
 
   JacocoController(IAgent agent) {
+    this(agent, false);
+  }
+
+  JacocoController(IAgent agent, boolean parallelTests) {
     this.agent = agent;
+    this.parallelTests = parallelTests;
   }
 
   public synchronized void onTestStart(String name) {
-    if (testStarted) {
+    if (runningTests.isEmpty()) {
+      // Dump coverage between tests
+      dump("", true);
+    } else if (!parallelTests) {
       throw new JacocoControllerError("Looks like several tests executed in parallel in the same JVM, thus coverage per test can't be recorded correctly.");
     }
-    // Dump coverage between tests
-    dump("");
-    testStarted = true;
+    runningTests.add(name);
+    overlappingTests.add(name);
   }
 
+  /**
+   * Coverage is dumped as soon as the last running test of a test class finishes. When other tests ran meanwhile, coverage can not be
+   * separated between them, so it is dumped only once into a session shared by their test classes, and each still running test
+   * continues in the next session.
+   */
   public synchronized void onTestFinish(String name) {
-    // Dump coverage for test
-    dump(name);
-    testStarted = false;
+    runningTests.remove(name);
+    overlappingTests.add(name);
+    String testClass = testClass(name);
+    for (String runningTest : runningTests) {
+      if (testClass.equals(testClass(runningTest))) {
+        return;
+      }
+    }
+    dump(sessionId(), true);
+    overlappingTests.clear();
+    overlappingTests.addAll(runningTests);
+  }
+
+  private String sessionId() {
+    if (overlappingTests.size() == 1) {
+      return overlappingTests.iterator().next();
+    }
+    Set<String> testClasses = new LinkedHashSet<String>();
+    for (String test : overlappingTests) {
+      testClasses.add(testClass(test));
+    }
+    StringBuilder sb = new StringBuilder(PARALLEL_SESSION_PREFIX);
+    for (String testClass : testClasses) {
+      sb.append(' ').append(testClass);
+    }
+    return sb.toString();
+  }
+
+  private static String testClass(String name) {
+    int i = name.indexOf(' ');
+    return i < 0 ? name : name.substring(0, i);
   }
 
-  private void dump(String sessionId) {
+  private void dump(String sessionId, boolean reset) {
     agent.setSessionId(sessionId);
     try {
-      agent.dump(true);
+      agent.dump(reset);
     } catch (IOException e) {
       throw new JacocoControllerError(e);
     }
@@ -84,4 +84,71 @@ public class JacocoControllerTest {
     jacoco.onTestStart("test2");
   }
 
+  @Test
+  public void should_dump_coverage_of_parallel_tests_once_per_group_of_test_classes() throws Exception {
+    jacoco = new JacocoController(agent, true);
+    jacoco.onTestStart("A test1");
+    jacoco.onTestStart("B test1");
+    jacoco.onTestFinish("A test1");
+    jacoco.onTestStart("A test2");
+    jacoco.onTestStart("C test1");
+    jacoco.onTestFinish("B test1");
+    jacoco.onTestFinish("A test2");
+    jacoco.onTestFinish("C test1");
+
+    InOrder inOrder = Mockito.inOrder(agent);
+    inOrder.verify(agent).setSessionId("");
+    inOrder.verify(agent).dump(true);
+    // A and B ran together
+    inOrder.verify(agent).setSessionId("parallel: A B");
+    inOrder.verify(agent).dump(true);
+    // B still running, then A and C started
+    inOrder.verify(agent).setSessionId("parallel: B A C");
+    inOrder.verify(agent).dump(true);
+    inOrder.verify(agent).setSessionId("parallel: A C");
+    inOrder.verify(agent).dump(true);
+    // C alone at the end
+    inOrder.verify(agent).setSessionId("C test1");
+    inOrder.verify(agent).dump(true);
+    verifyNoMoreInteractions(agent);
+  }
+
+  @Test
+  public void should_group_parallel_tests_of_same_test_class() throws Exception {
+    jacoco = new JacocoController(agent, true);
+    jacoco.onTestStart("A test1");
+    jacoco.onTestStart("A test2");
+    jacoco.onTestFinish("A test1");
+    jacoco.onTestStart("A test3");
+    jacoco.onTestFinish("A test2");
+    jacoco.onTestFinish("A test3");
+
+    InOrder inOrder = Mockito.inOrder(agent);
+    inOrder.verify(agent).setSessionId("");
+    inOrder.verify(agent).dump(true);
+    inOrder.verify(agent).setSessionId("parallel: A");
+    inOrder.verify(agent).dump(true);
+    verifyNoMoreInteractions(agent);
+  }
+
+  @Test
+  public void should_dump_each_test_when_parallel_mode_but_sequential_execution() throws Exception {
+    jacoco = new JacocoController(agent, true);
+    jacoco.onTestStart("test1");
+    jacoco.onTestFinish("test1");
+    jacoco.onTestStart("test2");
+    jacoco.onTestFinish("test2");
+
+    InOrder inOrder = Mockito.inOrder(agent);
+    inOrder.verify(agent).setSessionId("");
+    inOrder.verify(agent).dump(true);
+    inOrder.verify(agent).setSessionId("test1");
+    inOrder.verify(agent).dump(true);
+    inOrder.verify(agent).setSessionId("");
+    inOrder.verify(agent).dump(true);
+    inOrder.verify(agent).setSessionId("test2");
+    inOrder.verify(agent).dump(true);
+    verifyNoMoreInteractions(agent);
+  }
+
 }
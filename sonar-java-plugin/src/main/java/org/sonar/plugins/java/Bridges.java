@@ -19,7 +19,7 @@
  */
 package org.sonar.plugins.java;
 
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.CoreProperties;
@@ -32,6 +32,7 @@ import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.Directory;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
+import org.sonar.java.IgnoredLinesIndex;
 import org.sonar.java.JavaSquid;
 import org.sonar.java.bytecode.visitor.ResourceMapping;
 import org.sonar.plugins.java.bridges.ChecksBridge;
@@ -39,34 +40,45 @@ import org.sonar.plugins.java.bridges.DesignBridge;
 import org.sonar.squidbridge.api.CodeVisitor;
 import org.sonar.squidbridge.api.SourceFile;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.util.Map;
+import java.util.Set;
 
 public class Bridges {
 
   private static final Logger LOG = LoggerFactory.getLogger(Bridges.class);
   private final JavaSquid squid;
   private final Settings settings;
-
+  private final File workDir;
 
   public Bridges(JavaSquid squid, Settings settings) {
+    this(squid, settings, null);
+  }
+
+  public Bridges(JavaSquid squid, Settings settings, @Nullable File workDir) {
     this.squid = squid;
     this.settings = settings;
+    this.workDir = workDir;
   }
 
   public void save(SensorContext context, Project project, Checks<CodeVisitor> checks, ResourceMapping resourceMapping,
-                   ResourcePerspectives resourcePerspectives, NoSonarFilter noSonarFilter, RulesProfile rulesProfile, Map<String, Multimap<String, Integer>> ignoredLinesForRules) {
+                   ResourcePerspectives resourcePerspectives, NoSonarFilter noSonarFilter, RulesProfile rulesProfile, Map<String, IgnoredLinesIndex> ignoredLinesForRules) {
     boolean skipPackageDesignAnalysis = settings.getBoolean(CoreProperties.DESIGN_SKIP_PACKAGE_DESIGN_PROPERTY);
     //Design
     if (!skipPackageDesignAnalysis && squid.isBytecodeScanned()) {
-      DesignBridge designBridge = new DesignBridge(context, squid.getGraph(), resourceMapping, resourcePerspectives);
+      int designAnalysisThreads = Math.max(settings.getInt(JavaPlugin.DESIGN_ANALYSIS_THREADS_PROPERTY), 1);
+      DesignBridge designBridge = new DesignBridge(context, squid.getGraph(), resourceMapping, resourcePerspectives, workDir, designAnalysisThreads);
+      designBridge.setMetrics(squid.getMetrics());
       designBridge.saveDesign(project);
     }
     //Report Issues
     ChecksBridge checksBridge = new ChecksBridge(checks, resourcePerspectives, rulesProfile, ignoredLinesForRules);
-    reportIssues(resourceMapping, noSonarFilter, checksBridge, project);
+    reportIssues(resourceMapping, noSonarFilter, checksBridge, project, ignoredLinesForRules);
   }
 
-  private void reportIssues(ResourceMapping resourceMapping, NoSonarFilter noSonarFilter, ChecksBridge checksBridge, Project project) {
+  private void reportIssues(ResourceMapping resourceMapping, NoSonarFilter noSonarFilter, ChecksBridge checksBridge, Project project,
+                            Map<String, IgnoredLinesIndex> ignoredLinesForRules) {
     for (Resource directory : resourceMapping.directories()) {
       checksBridge.reportIssueForPackageInfo((Directory) directory, project);
       for (Resource sonarFile : resourceMapping.files((Directory) directory)) {
@@ -75,7 +87,7 @@ public class Bridges {
         if(key != null) {
           SourceFile squidFile = (SourceFile) squid.search(key);
           if (squidFile != null) {
-            noSonarFilter.addResource(sonarFile, squidFile.getNoSonarTagLines());
+            noSonarFilter.addResource(sonarFile, noSonarLines(squidFile, ignoredLinesForRules.get(key)));
             checksBridge.reportIssues(squidFile, sonarFile);
           } else {
             LOG.error("Could not report issue on file: " + sonarFile.getKey());
@@ -85,4 +97,16 @@ public class Bridges {
     }
   }
 
+  /**
+   * Lines of NOSONAR comments, plus lines of {@code @SuppressWarnings("all")} which are expanded only now, one file at a time.
+   */
+  private static Set<Integer> noSonarLines(SourceFile squidFile, @Nullable IgnoredLinesIndex ignoredLines) {
+    Set<Integer> lines = squidFile.getNoSonarTagLines();
+    if (ignoredLines != null && ignoredLines.hasLinesIgnoredForAllRules()) {
+      lines = Sets.newHashSet(lines);
+      ignoredLines.addLinesIgnoredForAllRules(lines);
+    }
+    return lines;
+  }
+
 }
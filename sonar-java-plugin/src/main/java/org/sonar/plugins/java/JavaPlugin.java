@@ -25,6 +25,8 @@ import org.sonar.api.PropertyType;
 import org.sonar.api.SonarPlugin;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
+import org.sonar.java.AnalysisMetrics;
+import org.sonar.java.ClasspathDirectoryCache;
 import org.sonar.java.DefaultJavaResourceLocator;
 import org.sonar.java.JavaClasspath;
 import org.sonar.java.JavaClasspathProperties;
@@ -41,6 +43,11 @@ public class JavaPlugin extends SonarPlugin {
 
   public static final String SQUID_ANALYSE_ACCESSORS_PROPERTY = "sonar.squid.analyse.property.accessors";
   public static final boolean SQUID_ANALYSE_ACCESSORS_DEFAULT_VALUE = true;
+  public static final String DESIGN_ANALYSIS_THREADS_PROPERTY = "sonar.java.design.analysisThreads";
+  public static final int DESIGN_ANALYSIS_THREADS_DEFAULT_VALUE = 1;
+  public static final String PROFILING_PROPERTY = "sonar.java.profiling";
+  public static final String MAX_FILE_PARSE_TIME_PROPERTY = "sonar.java.parsing.maxFileTime";
+  public static final String MAX_NESTING_DEPTH_PROPERTY = "sonar.java.parsing.maxNestingDepth";
 
   @Override
   public List getExtensions() {
@@ -49,7 +56,9 @@ public class JavaPlugin extends SonarPlugin {
     builder.addAll(JaCoCoExtensions.getExtensions());
     builder.addAll(JavaClasspathProperties.getProperties());
     builder.add(
+        ClasspathDirectoryCache.class,
         JavaClasspath.class,
+        AnalysisMetrics.class,
         JavaCommonRulesEngine.class,
         JavaCommonRulesDecorator.class,
         Java.class,
@@ -79,6 +88,42 @@ public class JavaPlugin extends SonarPlugin {
             .type(PropertyType.BOOLEAN)
             .hidden()
             .build(),
+        PropertyDefinition.builder(JavaPlugin.DESIGN_ANALYSIS_THREADS_PROPERTY)
+            .defaultValue(JavaPlugin.DESIGN_ANALYSIS_THREADS_DEFAULT_VALUE + "")
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Package design analysis threads")
+            .description("Number of threads used to analyze the design of packages. Values greater than 1 enable parallel analysis.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.PROFILING_PROPERTY)
+            .defaultValue("false")
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Profile checks")
+            .description("Measure time spent by each check and visitor. Most time consuming ones are logged, and all of them are reported into the working directory.")
+            .type(PropertyType.BOOLEAN)
+            .hidden()
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.MAX_FILE_PARSE_TIME_PROPERTY)
+            .defaultValue("0")
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Maximum parsing time of a file")
+            .description("Maximum time in milliseconds to parse a single file. Files exceeding it are reported as not parsable and skipped. 0 for no limit.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.MAX_NESTING_DEPTH_PROPERTY)
+            .defaultValue("0")
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Maximum nesting depth of a file")
+            .description("Maximum nesting depth of the syntax tree of a single file. Files exceeding it are reported as not parsable and skipped. 0 for no limit.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
 
         JavaRuleRepository.class,
         JavaSonarWayProfile.class,
@@ -34,12 +34,14 @@ import org.sonar.api.checks.NoSonarFilter;
 import org.sonar.api.config.Settings;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.Project;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.DefaultJavaResourceLocator;
 import org.sonar.java.JavaClasspath;
 import org.sonar.java.JavaConfiguration;
 import org.sonar.java.JavaSquid;
 import org.sonar.java.Measurer;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.VisitorsProfiler;
 import org.sonar.java.api.JavaUtils;
 import org.sonar.java.checks.CheckList;
 import org.sonar.squidbridge.api.CodeVisitor;
@@ -55,6 +57,9 @@ import java.util.List;
 @DependedUpon(value = JavaUtils.BARRIER_AFTER_SQUID)
 public class JavaSquidSensor implements Sensor {
 
+  private static final String PROFILING_REPORT_FILE_NAME = "java-visitors-profiling.json";
+  private static final int PROFILING_SUMMARY_SIZE = 10;
+
   private final JavaClasspath javaClasspath;
   private final SonarComponents sonarComponents;
   private final FileSystem fs;
@@ -63,9 +68,11 @@ public class JavaSquidSensor implements Sensor {
   private final CheckFactory checkFactory;
   private final RulesProfile profile;
   private final NoSonarFilter noSonarFilter;
+  private final AnalysisMetrics metrics;
 
   public JavaSquidSensor(RulesProfile profile, JavaClasspath javaClasspath, SonarComponents sonarComponents, FileSystem fs,
-                         DefaultJavaResourceLocator javaResourceLocator, Settings settings, NoSonarFilter noSonarFilter, CheckFactory checkFactory) {
+                         DefaultJavaResourceLocator javaResourceLocator, Settings settings, NoSonarFilter noSonarFilter, CheckFactory checkFactory,
+                         AnalysisMetrics metrics) {
     this.profile = profile;
     this.noSonarFilter = noSonarFilter;
     this.javaClasspath = javaClasspath;
@@ -74,6 +81,7 @@ public class JavaSquidSensor implements Sensor {
     this.javaResourceLocator = javaResourceLocator;
     this.settings = settings;
     this.checkFactory = checkFactory;
+    this.metrics = metrics;
   }
 
   @Override
@@ -87,10 +95,16 @@ public class JavaSquidSensor implements Sensor {
     Collection<CodeVisitor> checkList = checks.all();
     JavaConfiguration configuration = createConfiguration();
     Measurer measurer = new Measurer(project, context, configuration.isAnalysePropertyAccessors());
-    JavaSquid squid = new JavaSquid(configuration, sonarComponents, measurer, javaResourceLocator, checkList.toArray(new CodeVisitor[checkList.size()]));
+    JavaSquid squid = new JavaSquid(configuration, sonarComponents, measurer, javaResourceLocator, metrics, checkList.toArray(new CodeVisitor[checkList.size()]));
     squid.scan(getSourceFiles(), getTestFiles(), getBytecodeFiles());
-    new Bridges(squid, settings).save(context, project, checks, javaResourceLocator.getResourceMapping(),
-        sonarComponents.getResourcePerspectives(), noSonarFilter, profile, javaResourceLocator.getIgnoredLinesForRules());
+    new Bridges(squid, settings, fs.workDir()).save(context, project, checks, javaResourceLocator.getResourceMapping(),
+        sonarComponents.getResourcePerspectives(), noSonarFilter, profile, javaResourceLocator.getIgnoredLinesIndexes());
+    VisitorsProfiler visitorsProfiler = squid.getVisitorsProfiler();
+    if (visitorsProfiler != null) {
+      visitorsProfiler.writeReport(new File(fs.workDir(), PROFILING_REPORT_FILE_NAME));
+      visitorsProfiler.logSummary(PROFILING_SUMMARY_SIZE);
+    }
+    metrics.writeReport(fs.workDir());
   }
 
   private Iterable<File> getSourceFiles() {
@@ -121,6 +135,9 @@ public class JavaSquidSensor implements Sensor {
     Charset charset = fs.encoding();
     JavaConfiguration conf = new JavaConfiguration(charset);
     conf.setAnalyzePropertyAccessors(analyzePropertyAccessors);
+    conf.setProfileVisitors(settings.getBoolean(JavaPlugin.PROFILING_PROPERTY));
+    conf.setMaxFileParseTime(settings.getLong(JavaPlugin.MAX_FILE_PARSE_TIME_PROPERTY));
+    conf.setMaxNestingDepth(settings.getInt(JavaPlugin.MAX_NESTING_DEPTH_PROPERTY));
     return conf;
   }
 
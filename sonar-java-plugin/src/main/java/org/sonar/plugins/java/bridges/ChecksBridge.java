@@ -19,7 +19,6 @@
  */
 package org.sonar.plugins.java.bridges;
 
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.component.ResourcePerspectives;
@@ -31,12 +30,14 @@ import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rules.ActiveRule;
+import org.sonar.java.IgnoredLinesIndex;
 import org.sonar.java.checks.CheckList;
 import org.sonar.java.checks.PackageInfoCheck;
 import org.sonar.squidbridge.api.CheckMessage;
 import org.sonar.squidbridge.api.CodeVisitor;
 import org.sonar.squidbridge.api.SourceFile;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Map;
 import java.util.Set;
@@ -46,11 +47,11 @@ public class ChecksBridge {
   private final Checks<CodeVisitor> checks;
   private final ResourcePerspectives resourcePerspectives;
   private final RulesProfile rulesProfile;
-  private final Map<String, Multimap<String, Integer>> ignoredLinesForRulesByFile;
+  private final Map<String, IgnoredLinesIndex> ignoredLinesForRulesByFile;
   private Set<Directory> dirsWithoutPackageInfo;
 
   public ChecksBridge(Checks<CodeVisitor> checks, ResourcePerspectives resourcePerspectives,
-                      RulesProfile rulesProfile, Map<String, Multimap<String, Integer>> ignoredLinesForRulesByFile) {
+                      RulesProfile rulesProfile, Map<String, IgnoredLinesIndex> ignoredLinesForRulesByFile) {
     this.checks = checks;
     this.resourcePerspectives = resourcePerspectives;
     this.rulesProfile = rulesProfile;
@@ -70,8 +71,8 @@ public class ChecksBridge {
         } else {
           ruleKey = checks.ruleKey((CodeVisitor) checkMessage.getCheck());
         }
-        Multimap<String, Integer> ignoreLinesForRules = ignoredLinesForRulesByFile.get(squidFile.getKey());
-        if (ruleKey != null && ignoreLinesForRules != null && !ignoreLinesForRules.get(ruleKey.toString()).contains(checkMessage.getLine())) {
+        IgnoredLinesIndex ignoredLinesForRules = ignoredLinesForRulesByFile.get(squidFile.getKey());
+        if (ruleKey != null && ignoredLinesForRules != null && !isIgnored(ignoredLinesForRules, ruleKey, checkMessage.getLine())) {
           Issue issue = issuable.newIssueBuilder()
               .ruleKey(ruleKey)
               .line(checkMessage.getLine())
@@ -84,6 +85,10 @@ public class ChecksBridge {
     }
   }
 
+  private static boolean isIgnored(IgnoredLinesIndex ignoredLinesForRules, RuleKey ruleKey, @Nullable Integer line) {
+    return line != null && ignoredLinesForRules.isIgnored(ruleKey.toString(), line);
+  }
+
   public void reportIssueForPackageInfo(Directory directory, Project project) {
     if (dirsWithoutPackageInfo == null) {
       initSetOfDirs(project);
@@ -19,7 +19,10 @@
  */
 package org.sonar.plugins.java.bridges;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.SensorContext;
@@ -33,6 +36,7 @@ import org.sonar.api.measures.PersistenceMode;
 import org.sonar.api.resources.Directory;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
+import org.sonar.api.utils.SonarException;
 import org.sonar.api.utils.TimeProfiler;
 import org.sonar.graph.Cycle;
 import org.sonar.graph.DirectedGraph;
@@ -41,27 +45,64 @@ import org.sonar.graph.DsmTopologicalSorter;
 import org.sonar.graph.Edge;
 import org.sonar.graph.IncrementalCyclesAndFESSolver;
 import org.sonar.graph.MinimumFeedbackEdgeSetSolver;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.bytecode.visitor.ResourceMapping;
 import org.sonar.java.checks.CycleBetweenPackagesCheck;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DesignBridge {
 
   private static final Logger LOG = LoggerFactory.getLogger(DesignBridge.class);
 
+  private static final String PROJECT_SCOPE = "";
+
   private final SensorContext context;
   private final DirectedGraph<Resource, Dependency> graph;
   private final ResourceMapping resourceMapping;
   private final ResourcePerspectives resourcePerspectives;
+  private final DesignCache cache;
+  private final int analysisThreads;
+  private AnalysisMetrics metrics;
 
   public DesignBridge(SensorContext context, DirectedGraph<Resource, Dependency> graph, ResourceMapping resourceMapping, ResourcePerspectives resourcePerspectives) {
+    this(context, graph, resourceMapping, resourcePerspectives, null, 1);
+  }
+
+  /**
+   * @param workDir directory where results are kept from one analysis to the next, or null to always recompute them
+   * @param analysisThreads number of threads used to analyze packages, values greater than 1 enable parallel analysis
+   */
+  public DesignBridge(SensorContext context, DirectedGraph<Resource, Dependency> graph, ResourceMapping resourceMapping, ResourcePerspectives resourcePerspectives,
+    @Nullable File workDir, int analysisThreads) {
     this.context = context;
     this.graph = graph;
     this.resourceMapping = resourceMapping;
     this.resourcePerspectives = resourcePerspectives;
+    this.cache = new DesignCache(workDir);
+    this.analysisThreads = analysisThreads;
+  }
+
+  /**
+   * @param metrics collects time spent in cycles and feedback edges solvers, null to not collect it
+   */
+  public void setMetrics(@Nullable AnalysisMetrics metrics) {
+    this.metrics = metrics;
   }
 
   public void saveDesign(Project sonarProject) {
@@ -69,18 +110,17 @@ public class DesignBridge {
     TimeProfiler profiler = new TimeProfiler(LOG).start("Package design analysis");
     LOG.debug("{} packages to analyze", directories.size());
 
-    IncrementalCyclesAndFESSolver<Resource> cyclesAndFESSolver = new IncrementalCyclesAndFESSolver<Resource>(graph, directories);
-    LOG.debug("{} cycles", cyclesAndFESSolver.getCycles().size());
+    DesignAnalysis analysis = analyze(PROJECT_SCOPE, directories, true);
+    LOG.debug("{} cycles", analysis.cycles);
 
-    Set<Edge> feedbackEdges = cyclesAndFESSolver.getFeedbackEdgeSet();
+    Set<Edge> feedbackEdges = analysis.feedbackEdges;
     LOG.debug("{} feedback edges", feedbackEdges.size());
-    int tangles = cyclesAndFESSolver.getWeightOfFeedbackEdgeSet();
 
     saveIssues(feedbackEdges);
     saveDependencies();
-    savePositiveMeasure(sonarProject, CoreMetrics.PACKAGE_CYCLES, cyclesAndFESSolver.getCycles().size());
+    savePositiveMeasure(sonarProject, CoreMetrics.PACKAGE_CYCLES, analysis.cycles);
     savePositiveMeasure(sonarProject, CoreMetrics.PACKAGE_FEEDBACK_EDGES, feedbackEdges.size());
-    savePositiveMeasure(sonarProject, CoreMetrics.PACKAGE_TANGLES, tangles);
+    savePositiveMeasure(sonarProject, CoreMetrics.PACKAGE_TANGLES, analysis.tangles);
     savePositiveMeasure(sonarProject, CoreMetrics.PACKAGE_EDGES_WEIGHT, getEdgesWeight(directories));
 
     String dsmJson = serializeDsm(graph, directories, feedbackEdges);
@@ -89,40 +129,170 @@ public class DesignBridge {
 
     profiler.stop();
 
+    Map<Resource, Collection<Resource>> filesByPackage = Maps.newLinkedHashMap();
     for (Resource sonarPackage : directories) {
-      onPackage(sonarPackage);
+      Collection<Resource> squidFiles = getResourcesForDirectory(sonarPackage);
+      if (!squidFiles.isEmpty()) {
+        filesByPackage.put(sonarPackage, squidFiles);
+      }
     }
+    Map<Resource, DesignAnalysis> analyses = analyzePackages(filesByPackage);
+    for (Map.Entry<Resource, Collection<Resource>> entry : filesByPackage.entrySet()) {
+      onPackage(entry.getKey(), entry.getValue(), analyses.get(entry.getKey()));
+    }
+    cache.save();
   }
 
-  private void savePositiveMeasure(Resource sonarResource, Metric metric, double value) {
-    if (value >= 0.0) {
-      context.saveMeasure(sonarResource, metric, value);
+  /**
+   * Packages are analyzed concurrently when several threads are allowed, as their analyses only read the graph.
+   * Measures are saved afterwards by the caller.
+   */
+  private Map<Resource, DesignAnalysis> analyzePackages(Map<Resource, Collection<Resource>> filesByPackage) {
+    Map<Resource, DesignAnalysis> result = Maps.newHashMap();
+    if (analysisThreads <= 1 || filesByPackage.size() <= 1) {
+      for (Map.Entry<Resource, Collection<Resource>> entry : filesByPackage.entrySet()) {
+        result.put(entry.getKey(), analyze(entry.getKey().getKey(), entry.getValue(), false));
+      }
+      return result;
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(analysisThreads);
+    try {
+      Map<Resource, Future<DesignAnalysis>> futures = Maps.newHashMap();
+      for (final Map.Entry<Resource, Collection<Resource>> entry : filesByPackage.entrySet()) {
+        futures.put(entry.getKey(), executorService.submit(new Callable<DesignAnalysis>() {
+          @Override
+          public DesignAnalysis call() {
+            return analyze(entry.getKey().getKey(), entry.getValue(), false);
+          }
+        }));
+      }
+      for (Map.Entry<Resource, Future<DesignAnalysis>> entry : futures.entrySet()) {
+        result.put(entry.getKey(), entry.getValue().get());
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SonarException("Interrupted during package design analysis", e);
+    } catch (ExecutionException e) {
+      throw new SonarException("Unable to analyze package design", e.getCause());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Results of the previous analysis are reused when the sub-graph of the given resources did not change,
+   * as long as its feedback edges can still be found in the current graph.
+   */
+  private DesignAnalysis analyze(String scope, Collection<Resource> resources, boolean incremental) {
+    if (!cache.isEnabled()) {
+      return solve(resources, incremental);
+    }
+    String fingerprint = fingerprint(resources);
+    DesignCache.Entry entry = cache.get(scope, fingerprint);
+    DesignAnalysis analysis = entry == null ? null : restore(entry, resources);
+    if (analysis == null) {
+      analysis = solve(resources, incremental);
+    }
+    cache.put(scope, new DesignCache.Entry(fingerprint, analysis.cycles, analysis.tangles, feedbackEdgesKeys(analysis.feedbackEdges)));
+    return analysis;
+  }
+
+  private DesignAnalysis solve(Collection<Resource> resources, boolean incremental) {
+    long start = System.nanoTime();
+    DesignAnalysis analysis = incremental ? solveIncrementally(resources) : solve(resources);
+    if (metrics != null) {
+      metrics.addTime(AnalysisMetrics.DESIGN, System.nanoTime() - start);
+    }
+    return analysis;
+  }
+
+  private DesignAnalysis solveIncrementally(Collection<Resource> resources) {
+    IncrementalCyclesAndFESSolver<Resource> cyclesAndFESSolver = new IncrementalCyclesAndFESSolver<Resource>(graph, resources);
+    return new DesignAnalysis(cyclesAndFESSolver.getCycles().size(), cyclesAndFESSolver.getFeedbackEdgeSet(), cyclesAndFESSolver.getWeightOfFeedbackEdgeSet());
+  }
+
+  private DesignAnalysis solve(Collection<Resource> resources) {
+    IncrementalCyclesAndFESSolver<Resource> cycleDetector = new IncrementalCyclesAndFESSolver<Resource>(graph, resources);
+    Set<Cycle> cycles = cycleDetector.getCycles();
+    MinimumFeedbackEdgeSetSolver solver = new MinimumFeedbackEdgeSetSolver(cycles);
+    return new DesignAnalysis(cycles.size(), solver.getEdges(), solver.getWeightOfFeedbackEdgeSet());
+  }
+
+  @CheckForNull
+  private DesignAnalysis restore(DesignCache.Entry entry, Collection<Resource> resources) {
+    Map<String, Resource> resourcesByKey = Maps.newHashMap();
+    for (Resource resource : resources) {
+      resourcesByKey.put(resource.getKey(), resource);
+    }
+    Set<Edge> feedbackEdges = Sets.newHashSet();
+    for (int i = 0; i < entry.feedbackEdges.size(); i += 2) {
+      Resource from = resourcesByKey.get(entry.feedbackEdges.get(i));
+      Resource to = resourcesByKey.get(entry.feedbackEdges.get(i + 1));
+      Dependency edge = from == null || to == null ? null : graph.getEdge(from, to);
+      if (edge == null) {
+        return null;
+      }
+      feedbackEdges.add(edge);
     }
+    return new DesignAnalysis(entry.cycles, feedbackEdges, entry.tangles);
   }
 
-  private void onPackage(Resource sonarPackage) {
-    Collection<Resource> squidFiles = getResourcesForDirectory(sonarPackage);
-    if (squidFiles != null && !squidFiles.isEmpty()) {
-      IncrementalCyclesAndFESSolver<Resource> cycleDetector = new IncrementalCyclesAndFESSolver<Resource>(graph, squidFiles);
-      Set<Cycle> cycles = cycleDetector.getCycles();
+  private static List<String> feedbackEdgesKeys(Set<Edge> feedbackEdges) {
+    List<String> keys = Lists.newArrayListWithCapacity(feedbackEdges.size() * 2);
+    for (Edge edge : feedbackEdges) {
+      keys.add(((Resource) edge.getFrom()).getKey());
+      keys.add(((Resource) edge.getTo()).getKey());
+    }
+    return keys;
+  }
 
-      MinimumFeedbackEdgeSetSolver solver = new MinimumFeedbackEdgeSetSolver(cycles);
-      Set<Edge> feedbackEdges = solver.getEdges();
-      int tangles = solver.getWeightOfFeedbackEdgeSet();
+  /**
+   * Identifies the sub-graph of the given resources: their keys and the weighted edges between them.
+   */
+  private String fingerprint(Collection<Resource> resources) {
+    List<String> lines = Lists.newArrayList();
+    for (Resource resource : resources) {
+      lines.add(String.valueOf(resource.getKey()));
+    }
+    for (Dependency edge : graph.getEdges(resources)) {
+      lines.add(edge.getFrom().getKey() + " -> " + edge.getTo().getKey() + " : " + edge.getWeight());
+    }
+    Collections.sort(lines);
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      for (String line : lines) {
+        digest.update(line.getBytes(Charsets.UTF_8));
+        digest.update((byte) '\n');
+      }
+      return new BigInteger(1, digest.digest()).toString(16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
 
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_CYCLES, cycles.size());
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_FEEDBACK_EDGES, feedbackEdges.size());
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_TANGLES, tangles);
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_EDGES_WEIGHT, getEdgesWeight(squidFiles));
-      String dsmJson = serializeDsm(graph, squidFiles, feedbackEdges);
-      context.saveMeasure(sonarPackage, new Measure(CoreMetrics.DEPENDENCY_MATRIX, dsmJson));
+  private void savePositiveMeasure(Resource sonarResource, Metric metric, double value) {
+    if (value >= 0.0) {
+      context.saveMeasure(sonarResource, metric, value);
     }
   }
 
+  private void onPackage(Resource sonarPackage, Collection<Resource> squidFiles, DesignAnalysis analysis) {
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_CYCLES, analysis.cycles);
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_FEEDBACK_EDGES, analysis.feedbackEdges.size());
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_TANGLES, analysis.tangles);
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_EDGES_WEIGHT, getEdgesWeight(squidFiles));
+    String dsmJson = serializeDsm(graph, squidFiles, analysis.feedbackEdges);
+    context.saveMeasure(sonarPackage, new Measure(CoreMetrics.DEPENDENCY_MATRIX, dsmJson));
+  }
+
   private Collection<Resource> getResourcesForDirectory(Resource sonarPackage) {
     List<Resource> result = Lists.newArrayList();
     for (Resource resource : resourceMapping.files((Directory) sonarPackage)) {
-      result.add(context.getResource(resource));
+      Resource indexedResource = context.getResource(resource);
+      if (indexedResource != null) {
+        result.add(indexedResource);
+      }
     }
     return result;
   }
@@ -167,5 +337,16 @@ public class DesignBridge {
     }
   }
 
+  private static class DesignAnalysis {
+    private final int cycles;
+    private final Set<Edge> feedbackEdges;
+    private final int tangles;
+
+    DesignAnalysis(int cycles, Set<Edge> feedbackEdges, int tangles) {
+      this.cycles = cycles;
+      this.feedbackEdges = feedbackEdges;
+      this.tangles = tangles;
+    }
+  }
 
 }
@@ -0,0 +1,170 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.java.bridges;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Closeables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Results of the package design analysis, persisted in the working directory so that the next analysis can reuse them
+ * for every scope (project or package) whose dependency graph did not change. Only the scopes analyzed during the current
+ * analysis are saved. Results are reused only when the working directory is kept from one analysis to the next, which is
+ * not the case for instance after "mvn clean".
+ */
+class DesignCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DesignCache.class);
+
+  static final String FILE_NAME = "java-design-analysis.dat";
+
+  /**
+   * To increment whenever the format of the file changes: files of other versions are ignored.
+   */
+  static final int VERSION = 1;
+
+  private final File file;
+  private final Map<String, Entry> previous;
+  private final ConcurrentMap<String, Entry> current = Maps.newConcurrentMap();
+
+  DesignCache(@Nullable File workDir) {
+    this.file = workDir == null ? null : new File(workDir, FILE_NAME);
+    this.previous = load(file);
+  }
+
+  /**
+   * @return false if there is no working directory, in which case nothing is ever reused nor saved
+   */
+  boolean isEnabled() {
+    return file != null;
+  }
+
+  /**
+   * @return entry from the previous analysis, only if it was computed for the same dependency graph
+   */
+  @CheckForNull
+  Entry get(String scope, String fingerprint) {
+    Entry entry = previous.get(scope);
+    return entry != null && entry.fingerprint.equals(fingerprint) ? entry : null;
+  }
+
+  void put(String scope, Entry entry) {
+    current.put(scope, entry);
+  }
+
+  /**
+   * Format is: version, number of entries, then for each entry its scope, fingerprint, cycles, tangles, number of feedback edges
+   * keys and these keys.
+   */
+  void save() {
+    if (file == null) {
+      return;
+    }
+    DataOutputStream out = null;
+    try {
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      out.writeInt(VERSION);
+      out.writeInt(current.size());
+      for (Map.Entry<String, Entry> entry : current.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue().fingerprint);
+        out.writeInt(entry.getValue().cycles);
+        out.writeInt(entry.getValue().tangles);
+        out.writeInt(entry.getValue().feedbackEdges.size());
+        for (String key : entry.getValue().feedbackEdges) {
+          out.writeUTF(key);
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to save results of package design analysis to " + file, e);
+    } finally {
+      Closeables.closeQuietly(out);
+    }
+  }
+
+  private static Map<String, Entry> load(@Nullable File file) {
+    Map<String, Entry> result = Maps.newHashMap();
+    if (file == null || !file.isFile()) {
+      return result;
+    }
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (in.readInt() != VERSION) {
+        LOG.debug("Results of previous package design analysis were saved in another format and are ignored: " + file);
+        return result;
+      }
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        String scope = in.readUTF();
+        String fingerprint = in.readUTF();
+        int cycles = in.readInt();
+        int tangles = in.readInt();
+        int feedbackEdgesKeys = in.readInt();
+        List<String> feedbackEdges = Lists.newArrayList();
+        for (int j = 0; j < feedbackEdgesKeys; j++) {
+          feedbackEdges.add(in.readUTF());
+        }
+        result.put(scope, new Entry(fingerprint, cycles, tangles, feedbackEdges));
+      }
+      return result;
+    } catch (IOException e) {
+      LOG.debug("Results of previous package design analysis can not be read from " + file, e);
+      return Maps.newHashMap();
+    } finally {
+      Closeables.closeQuietly(in);
+    }
+  }
+
+  static class Entry {
+
+    final String fingerprint;
+    final int cycles;
+    final int tangles;
+    /**
+     * Keys of source and target of each feedback edge, one after the other.
+     */
+    final List<String> feedbackEdges;
+
+    Entry(String fingerprint, int cycles, int tangles, List<String> feedbackEdges) {
+      this.fingerprint = fingerprint;
+      this.cycles = cycles;
+      this.tangles = tangles;
+      this.feedbackEdges = feedbackEdges;
+    }
+  }
+
+}
@@ -26,12 +26,30 @@ import org.sonar.graph.DsmCell;
 
 public final class DsmSerializer {
 
+  /**
+   * Estimated length of a row without its cells: resource id, name and qualifier.
+   */
+  private static final int ROW_HEADER_LENGTH = 64;
+  /**
+   * Length of an empty cell and its separator, which is the most frequent cell.
+   */
+  private static final int EMPTY_CELL_LENGTH = 3;
+  private static final String EMPTY_CELL = "{}";
+
   private Dsm dsm;
   private StringBuilder json;
 
   private DsmSerializer(Dsm<Resource> dsm) {
     this.dsm = dsm;
-    this.json = new StringBuilder();
+    this.json = new StringBuilder(estimateLength(dsm.getDimension()));
+  }
+
+  /**
+   * The whole matrix is kept in a single string, so buffer is sized upfront in order to not copy it over and over while it grows.
+   */
+  private static int estimateLength(int dimension) {
+    long length = 2L + dimension * (ROW_HEADER_LENGTH + (long) dimension * EMPTY_CELL_LENGTH);
+    return (int) Math.min(length, Integer.MAX_VALUE - 8);
   }
 
   private String serialize() {
@@ -75,14 +93,15 @@ public final class DsmSerializer {
 
   private void serializeCell(int y, int x) {
     DsmCell cell = dsm.getCell(x, y);
-    json.append('{');
     if (cell.getEdge() != null && cell.getWeight() > 0) {
-      json.append("\"i\":");
+      json.append("{\"i\":");
       json.append(((Dependency) cell.getEdge()).getId());
       json.append(",\"w\":");
       json.append(cell.getWeight());
+      json.append('}');
+    } else {
+      json.append(EMPTY_CELL);
     }
-    json.append('}');
   }
 
   public static String serialize(Dsm<Resource> dsm) {
@@ -28,6 +28,7 @@ import org.sonar.api.checks.NoSonarFilter;
 import org.sonar.api.config.Settings;
 import org.sonar.api.profiles.RulesProfile;
 import org.sonar.api.resources.Project;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.DefaultJavaResourceLocator;
 import org.sonar.java.JavaClasspath;
 import org.sonar.java.SonarComponents;
@@ -44,7 +45,8 @@ public class JavaSquidSensorTest {
   public void setUp() {
     sensor = new JavaSquidSensor(mock(RulesProfile.class), new JavaClasspath(mock(Project.class),
         new Settings(), new DefaultFileSystem()), mock(SonarComponents.class), fileSystem,
-        mock(DefaultJavaResourceLocator.class), new Settings(), mock(NoSonarFilter.class), mock(CheckFactory.class));
+        mock(DefaultJavaResourceLocator.class), new Settings(), mock(NoSonarFilter.class), mock(CheckFactory.class),
+        new AnalysisMetrics());
   }
 
   @Test
@@ -19,24 +19,38 @@
  */
 package org.sonar.plugins.java.bridges;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.component.ResourcePerspectives;
 import org.sonar.api.design.Dependency;
+import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Metric;
+import org.sonar.api.resources.Directory;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.graph.DirectedGraph;
+import org.sonar.java.AnalysisMetrics;
 import org.sonar.java.bytecode.visitor.ResourceMapping;
 
 import static org.mockito.Matchers.any;
+import java.util.Arrays;
+
+import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class DesignBridgeTest {
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
 
   @Test
   public void metrics_are_saved() throws Exception {
@@ -49,4 +63,80 @@ public class DesignBridgeTest {
     verify(context, times(4)).saveMeasure(any(Resource.class), any(Metric.class), anyDouble());
 
   }
+
+  @Test
+  public void results_are_reused_by_next_analysis() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      SensorContext context = mockContext();
+      Project project = mock(Project.class);
+      Fixture fixture = new Fixture();
+      new DesignBridge(context, fixture.graph, fixture.resourceMapping, mock(ResourcePerspectives.class), temp.getRoot(), 1).saveDesign(project);
+
+      verify(context).saveMeasure(project, CoreMetrics.PACKAGE_CYCLES, 1.0);
+      verify(context).saveMeasure(project, CoreMetrics.PACKAGE_FEEDBACK_EDGES, 1.0);
+      verify(context).saveMeasure(fixture.directoryA, CoreMetrics.FILE_CYCLES, 1.0);
+      verify(context).saveMeasure(fixture.directoryA, CoreMetrics.FILE_FEEDBACK_EDGES, 1.0);
+      verify(context).saveMeasure(fixture.directoryB, CoreMetrics.FILE_CYCLES, 0.0);
+    }
+    assertThat(new java.io.File(temp.getRoot(), DesignCache.FILE_NAME)).exists();
+  }
+
+  @Test
+  public void packages_are_analyzed_in_parallel() throws Exception {
+    SensorContext context = mockContext();
+    Fixture fixture = new Fixture();
+    new DesignBridge(context, fixture.graph, fixture.resourceMapping, mock(ResourcePerspectives.class), null, 2).saveDesign(mock(Project.class));
+
+    verify(context).saveMeasure(fixture.directoryA, CoreMetrics.FILE_CYCLES, 1.0);
+    verify(context).saveMeasure(fixture.directoryA, CoreMetrics.FILE_TANGLES, 1.0);
+    verify(context).saveMeasure(fixture.directoryB, CoreMetrics.FILE_CYCLES, 0.0);
+    verify(context, times(2)).saveMeasure(any(Resource.class), eq(CoreMetrics.FILE_EDGES_WEIGHT), anyDouble());
+  }
+
+  @Test
+  public void solver_time_is_collected() throws Exception {
+    Fixture fixture = new Fixture();
+    AnalysisMetrics metrics = new AnalysisMetrics();
+    DesignBridge bridge = new DesignBridge(mockContext(), fixture.graph, fixture.resourceMapping, mock(ResourcePerspectives.class));
+    bridge.setMetrics(metrics);
+    bridge.saveDesign(mock(Project.class));
+
+    assertThat(metrics.getTime(AnalysisMetrics.DESIGN)).isGreaterThan(0);
+  }
+
+  private static SensorContext mockContext() {
+    SensorContext context = mock(SensorContext.class);
+    when(context.getResource(any(Resource.class))).thenAnswer(new Answer<Resource>() {
+      @Override
+      public Resource answer(InvocationOnMock invocation) throws Throwable {
+        return (Resource) invocation.getArguments()[0];
+      }
+    });
+    return context;
+  }
+
+  /**
+   * Packages "a" and "b" depend on each other, as well as files "a/A1" and "a/A2".
+   */
+  private static class Fixture {
+    final DirectedGraph<Resource, Dependency> graph = new DirectedGraph<Resource, Dependency>();
+    final ResourceMapping resourceMapping = mock(ResourceMapping.class);
+    final Directory directoryA = Directory.create("a");
+    final Directory directoryB = Directory.create("b");
+
+    Fixture() {
+      Resource fileA1 = org.sonar.api.resources.File.create("a/A1");
+      Resource fileA2 = org.sonar.api.resources.File.create("a/A2");
+      Resource fileB = org.sonar.api.resources.File.create("b/B");
+      graph.addEdge(new Dependency(directoryA, directoryB).setWeight(1));
+      graph.addEdge(new Dependency(directoryB, directoryA).setWeight(2));
+      graph.addEdge(new Dependency(fileA1, fileA2).setWeight(1));
+      graph.addEdge(new Dependency(fileA2, fileA1).setWeight(1));
+      graph.addVertex(fileB);
+      when(resourceMapping.directories()).thenReturn(new java.util.LinkedHashSet<Resource>(Arrays.<Resource>asList(directoryA, directoryB)));
+      when(resourceMapping.files(directoryA)).thenReturn(Arrays.asList(fileA1, fileA2));
+      when(resourceMapping.files(directoryB)).thenReturn(Arrays.<Resource>asList(fileB));
+    }
+  }
+
 }
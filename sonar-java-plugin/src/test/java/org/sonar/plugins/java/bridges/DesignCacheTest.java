@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.java.bridges;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class DesignCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void entries_are_available_to_next_analysis_for_same_fingerprint() {
+    DesignCache cache = new DesignCache(temp.getRoot());
+    cache.put("org/foo", new DesignCache.Entry("fingerprint", 2, 3, Arrays.asList("org/foo/A", "org/foo/B")));
+    assertThat(cache.get("org/foo", "fingerprint")).isNull();
+    cache.save();
+
+    cache = new DesignCache(temp.getRoot());
+    DesignCache.Entry entry = cache.get("org/foo", "fingerprint");
+    assertThat(entry.cycles).isEqualTo(2);
+    assertThat(entry.tangles).isEqualTo(3);
+    assertThat(entry.feedbackEdges).containsExactly("org/foo/A", "org/foo/B");
+    assertThat(cache.get("org/foo", "other")).isNull();
+    assertThat(cache.get("org/bar", "fingerprint")).isNull();
+  }
+
+  @Test
+  public void nothing_is_persisted_without_working_directory() {
+    DesignCache cache = new DesignCache(null);
+    assertThat(cache.isEnabled()).isFalse();
+    assertThat(new DesignCache(temp.getRoot()).isEnabled()).isTrue();
+    cache.put("org/foo", new DesignCache.Entry("fingerprint", 0, 0, Arrays.<String>asList()));
+    cache.save();
+    assertThat(cache.get("org/foo", "fingerprint")).isNull();
+  }
+
+  @Test
+  public void unreadable_file_is_ignored() throws Exception {
+    Files.write("not a design analysis", new File(temp.getRoot(), DesignCache.FILE_NAME), Charsets.UTF_8);
+    assertThat(new DesignCache(temp.getRoot()).get("org/foo", "fingerprint")).isNull();
+  }
+
+  @Test
+  public void file_of_other_version_is_ignored() throws Exception {
+    DesignCache cache = new DesignCache(temp.getRoot());
+    cache.put("org/foo", new DesignCache.Entry("fingerprint", 0, 0, Arrays.<String>asList()));
+    cache.save();
+
+    File file = new File(temp.getRoot(), DesignCache.FILE_NAME);
+    byte[] bytes = Files.toByteArray(file);
+    bytes[3] = (byte) (DesignCache.VERSION + 1);
+    Files.write(bytes, file);
+    assertThat(new DesignCache(temp.getRoot()).get("org/foo", "fingerprint")).isNull();
+  }
+
+  @Test
+  public void truncated_file_is_ignored() throws Exception {
+    DesignCache cache = new DesignCache(temp.getRoot());
+    cache.put("org/foo", new DesignCache.Entry("fingerprint", 2, 3, Arrays.asList("org/foo/A", "org/foo/B")));
+    cache.save();
+
+    File file = new File(temp.getRoot(), DesignCache.FILE_NAME);
+    byte[] bytes = Files.toByteArray(file);
+    Files.write(Arrays.copyOf(bytes, bytes.length - 3), file);
+    assertThat(new DesignCache(temp.getRoot()).get("org/foo", "fingerprint")).isNull();
+  }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * dev@sonar.codehaus.org
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.java.bridges;
+
+import org.junit.Test;
+import org.sonar.api.design.Dependency;
+import org.sonar.api.resources.Directory;
+import org.sonar.api.resources.Resource;
+import org.sonar.graph.DirectedGraph;
+import org.sonar.graph.Dsm;
+import org.sonar.graph.Edge;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class DsmSerializerTest {
+
+  @Test
+  public void serialize() {
+    Resource foo = Directory.create("src/foo", "foo").setId(7);
+    Resource bar = Directory.create("src/bar", "bar").setId(8);
+    DirectedGraph<Resource, Dependency> graph = new DirectedGraph<Resource, Dependency>();
+    graph.addEdge(new Dependency(foo, bar).setId(30L).setWeight(1));
+    graph.addVertex(bar);
+
+    Dsm<Resource> dsm = new Dsm<Resource>(graph, Arrays.asList(foo, bar), Collections.<Edge>emptySet());
+
+    assertThat(DsmSerializer.serialize(dsm)).isEqualTo("["
+      + "{\"i\":7,\"n\":\"" + foo.getName() + "\",\"q\":\"DIR\",\"v\":[{},{}]},"
+      + "{\"i\":8,\"n\":\"" + bar.getName() + "\",\"q\":\"DIR\",\"v\":[{\"i\":30,\"w\":1},{}]}"
+      + "]");
+  }
+
+}